@@ -0,0 +1,46 @@
+package com.jobupdater.bench;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The recorded results pages under src/bench/resources/corpus, one per source key.
+ *
+ * The pages reproduce each site's card markup as sources.json expects it, with a little page
+ * chrome around it and a few masked / promoted cards mixed in. To replace one with a real
+ * capture, save the page as corpus/&lt;source&gt;.html.
+ */
+public final class Corpus {
+
+    public static final List<String> SOURCES = Arrays.asList(
+            "linkedin", "indeed", "naukri", "glassdoor", "instahyre", "wellfound", "greenhouse", "lever");
+
+    private Corpus() {
+    }
+
+    // Raw page bytes, or null for an unknown source
+    public static byte[] page(String source) {
+        try (InputStream in = Corpus.class.getResourceAsStream("/corpus/" + source + ".html")) {
+            return in == null ? null : in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static String html(String source) {
+        byte[] page = page(source);
+        if (page == null) {
+            throw new IllegalArgumentException("No corpus page for " + source);
+        }
+        return new String(page, StandardCharsets.UTF_8);
+    }
+
+    // Base URI the page was "fetched" from, so relative links resolve like they do live
+    public static String baseUri(String source) {
+        return "https://" + source + ".example/" + source;
+    }
+}
@@ -0,0 +1,66 @@
+package com.jobupdater.bench;
+
+import com.jobupdater.Job;
+import com.jobupdater.ScraperProperties;
+import com.jobupdater.SeenJobIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The in-memory dedup screen with a given number of stored jobs: a recently seen job (exact
+ * hit), a job stored long ago (Bloom hit, evicted from the exact cache) and a new job.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class DedupBenchmark {
+
+    @Param({ "10000", "100000" })
+    public int storedJobs;
+
+    private SeenJobIndex index;
+    private Job recent;
+    private Job old;
+    private long next;
+
+    @Setup
+    public void setUp() {
+        index = new SeenJobIndex(Fixtures.database("dedup" + storedJobs), new ScraperProperties(),
+                Fixtures.clusterEvents());
+        for (long n = 0; n < storedJobs; n++) {
+            index.record(Fixtures.uniqueJob(n));
+        }
+        recent = Fixtures.uniqueJob(storedJobs - 1);
+        old = Fixtures.uniqueJob(0);
+        next = storedJobs;
+    }
+
+    @Benchmark
+    public SeenJobIndex.Verdict recentJob() {
+        return index.check(recent);
+    }
+
+    @Benchmark
+    public SeenJobIndex.Verdict oldJob() {
+        return index.check(old);
+    }
+
+    @Benchmark
+    public SeenJobIndex.Verdict newJob() {
+        return index.check(Fixtures.uniqueJob(next++));
+    }
+}
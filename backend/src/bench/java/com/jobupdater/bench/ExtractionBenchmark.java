@@ -0,0 +1,61 @@
+package com.jobupdater.bench;
+
+import com.jobupdater.ScraperProperties;
+import com.jobupdater.scraper.CardPlan;
+import com.jobupdater.scraper.SourceCatalog;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Card extraction per source on its corpus page, using the plans compiled from the bundled
+ * sources.json. parseAndExtract is what a board scraper pays per fetched page; extract isolates
+ * the selector work from the HTML parse.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ExtractionBenchmark {
+
+    @Param({ "linkedin", "indeed", "naukri", "glassdoor", "instahyre", "wellfound", "greenhouse", "lever" })
+    public String source;
+
+    private CardPlan plan;
+    private String html;
+    private Document doc;
+
+    @Setup
+    public void setUp() throws IOException {
+        plan = new SourceCatalog(new ScraperProperties()).get(source).getPlan();
+        html = Corpus.html(source);
+        doc = Jsoup.parse(html, Corpus.baseUri(source));
+    }
+
+    @Benchmark
+    public List<Map<String, String>> parseAndExtract() {
+        return plan.extract(Jsoup.parse(html, Corpus.baseUri(source)));
+    }
+
+    @Benchmark
+    public List<Map<String, String>> extract() {
+        return plan.extract(doc);
+    }
+}
@@ -0,0 +1,111 @@
+package com.jobupdater.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jobupdater.ClusterEvents;
+import com.jobupdater.FeedCache;
+import com.jobupdater.Job;
+import com.jobupdater.JobKeys;
+import com.jobupdater.LocalClusterEvents;
+import com.jobupdater.ScrapeProgress;
+import com.jobupdater.ScraperMetrics;
+import com.jobupdater.ScraperProperties;
+import com.jobupdater.SeenJobIndex;
+import com.jobupdater.scraper.CardPlan;
+import com.jobupdater.scraper.SourceCatalog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.jsoup.Jsoup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shared setup for the benchmarks: jobs built from the corpus the way the scrapers build them,
+ * and the write path wired up by hand against an in-memory H2 database.
+ */
+final class Fixtures {
+
+    // One node for the whole benchmark JVM: a second LocalClusterEvents would make the indexes
+    // behave as if other replicas shared the database
+    private static final ClusterEvents CLUSTER_EVENTS =
+            new LocalClusterEvents(new ScraperProperties(), new SimpleMeterRegistry());
+
+    private Fixtures() {
+    }
+
+    // Every card in the corpus as a raw (not yet validated or normalized) job
+    static List<Job> corpusJobs() {
+        SourceCatalog catalog = catalog();
+        List<Job> jobs = new ArrayList<>();
+        for (String source : Corpus.SOURCES) {
+            CardPlan plan = catalog.get(source).getPlan();
+            for (Map<String, String> card : plan.extract(Jsoup.parse(Corpus.html(source), Corpus.baseUri(source)))) {
+                Job job = new Job();
+                job.setSource(source);
+                job.setTitle(card.get("title"));
+                job.setUrl(card.get("url"));
+                job.setCompany(card.getOrDefault("company", "Unknown Company"));
+                job.setLocation(card.getOrDefault("location", "India"));
+                job.setDescription("View on " + source);
+                job.setPostedAt(LocalDateTime.now());
+                jobs.add(job);
+            }
+        }
+        return jobs;
+    }
+
+    // A job no other call returns, as long as n is unique
+    static Job uniqueJob(long n) {
+        Job job = new Job();
+        job.setSource("bench");
+        job.setTitle("Software Engineer " + n);
+        job.setCompany("Company " + (n % 997));
+        job.setLocation("Bengaluru, Karnataka, India");
+        job.setUrl("https://jobs.example/bench/" + n);
+        job.setDescription("Apply directly on company career site.");
+        job.setPostedAt(LocalDateTime.now());
+        JobKeys.assign(job);
+        return job;
+    }
+
+    static SourceCatalog catalog() {
+        try {
+            return new SourceCatalog(new ScraperProperties());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // A fresh in-memory database with the app's migrations applied
+    static JdbcTemplate database(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        Flyway.configure().dataSource(dataSource).load().migrate();
+        return new JdbcTemplate(dataSource);
+    }
+
+    // Metrics go to a throwaway registry and status messages to nowhere
+    static ScraperMetrics metrics(SeenJobIndex seenJobIndex) {
+        ScraperProperties properties = new ScraperProperties();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ScrapeProgress progress = new ScrapeProgress(new SimpMessagingTemplate((message, timeout) -> true),
+                CLUSTER_EVENTS, properties);
+        return new ScraperMetrics(registry, progress, seenJobIndex);
+    }
+
+    // A feed cache nobody reads from; ingest only bumps its version
+    static FeedCache feedCache(ScraperMetrics metrics) {
+        ScraperProperties properties = new ScraperProperties();
+        return new FeedCache(new ObjectMapper(), CLUSTER_EVENTS, properties, metrics);
+    }
+
+    static ClusterEvents clusterEvents() {
+        return CLUSTER_EVENTS;
+    }
+}
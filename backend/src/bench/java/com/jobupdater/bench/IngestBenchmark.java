@@ -0,0 +1,75 @@
+package com.jobupdater.bench;
+
+import com.jobupdater.Job;
+import com.jobupdater.JobClusterIndex;
+import com.jobupdater.JobIngestor;
+import com.jobupdater.JobSearchIndex;
+import com.jobupdater.ScraperMetrics;
+import com.jobupdater.ScraperProperties;
+import com.jobupdater.SeenJobIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batch persistence through JobIngestor against in-memory H2: a batch of new jobs (dedup
+ * screen, lookup, multi-row insert) and a batch the dedup screen rejects entirely. One op is
+ * one batch.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class IngestBenchmark {
+
+    @Param({ "50" })
+    public int batchSize;
+
+    private JobIngestor ingestor;
+    private List<Job> knownBatch;
+    private long next;
+
+    @Setup
+    public void setUp() {
+        JdbcTemplate jdbcTemplate = Fixtures.database("ingest" + batchSize);
+        SeenJobIndex seenJobIndex = new SeenJobIndex(jdbcTemplate, new ScraperProperties(), Fixtures.clusterEvents());
+        ScraperMetrics metrics = Fixtures.metrics(seenJobIndex);
+        ingestor = new JobIngestor(jdbcTemplate, seenJobIndex, new JobClusterIndex(jdbcTemplate, new ScraperProperties()),
+                new JobSearchIndex(jdbcTemplate), metrics, Fixtures.feedCache(metrics), Fixtures.clusterEvents());
+        knownBatch = batch();
+        ingestor.ingest(knownBatch);
+    }
+
+    @Benchmark
+    public List<Job> newJobs() {
+        return ingestor.ingest(batch());
+    }
+
+    @Benchmark
+    public List<Job> knownJobs() {
+        return ingestor.ingest(knownBatch);
+    }
+
+    private List<Job> batch() {
+        List<Job> batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            batch.add(Fixtures.uniqueJob(next++));
+        }
+        return batch;
+    }
+}
@@ -0,0 +1,92 @@
+package com.jobupdater.bench;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves the recorded corpus so the app can scrape without touching live sites.
+ *
+ * Every source gets one page, corpus/&lt;source&gt;.html, returned for any path under
+ * /&lt;source&gt;/ (so every keyword or board maps to it). Responses carry an ETag and honour
+ * If-None-Match, which exercises the conditional fetch path of the board scrapers.
+ *
+ * On start it writes a copy of the bundled sources.json with every url pointed here; run the
+ * app with SCRAPER_SOURCES_FILE set to that file.
+ *
+ * Usage: ReplayServer [port] [sources-file]
+ */
+public class ReplayServer {
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 18099;
+        Path sourcesFile = Paths.get(args.length > 1 ? args[1] : "target/sources-replay.json");
+
+        writeSources(port, sourcesFile);
+
+        HttpServer server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.createContext("/", ReplayServer::serve);
+        server.setExecutor(Executors.newFixedThreadPool(8));
+        server.start();
+        System.out.println("Replaying corpus on http://localhost:" + port + "/");
+        System.out.println("Run the app with SCRAPER_SOURCES_FILE=" + sourcesFile.toAbsolutePath());
+    }
+
+    private static void serve(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String[] parts = exchange.getRequestURI().getPath().split("/");
+            byte[] page = parts.length > 1 ? Corpus.page(parts[1]) : null;
+            if (page == null) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            String etag = "\"" + Integer.toHexString(java.util.Arrays.hashCode(page)) + "\"";
+            exchange.getResponseHeaders().set("ETag", etag);
+            if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+            exchange.sendResponseHeaders(200, page.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(page);
+            }
+        }
+    }
+
+    // The bundled definitions with each url replaced by /<source>/{target} (or /<source>/listing) on this server
+    private static void writeSources(int port, Path file) throws IOException {
+        ObjectMapper json = new ObjectMapper().enable(JsonParser.Feature.ALLOW_COMMENTS);
+        JsonNode sources;
+        try (InputStream in = ReplayServer.class.getResourceAsStream("/sources.json")) {
+            sources = json.readTree(in);
+        }
+        Iterator<Map.Entry<String, JsonNode>> it = sources.fields();
+        while (it.hasNext()) {
+            Map.Entry<String, JsonNode> source = it.next();
+            ObjectNode definition = (ObjectNode) source.getValue();
+            boolean hasTargets = definition.path("url").asText().contains("{target}");
+            definition.put("url", "http://localhost:" + port + "/" + source.getKey() + "/"
+                    + (hasTargets ? "{target}" : "listing"));
+            // No need to be polite to ourselves
+            definition.put("requestsPerMinute", 0);
+        }
+        if (file.getParent() != null) {
+            file.getParent().toFile().mkdirs();
+        }
+        json.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), sources);
+    }
+}
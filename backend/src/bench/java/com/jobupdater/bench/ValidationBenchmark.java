@@ -0,0 +1,72 @@
+package com.jobupdater.bench;
+
+import com.jobupdater.Job;
+import com.jobupdater.JobKeys;
+import com.jobupdater.JobValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-job checks on the ingest path, cycling through every job in the corpus (masked and
+ * promoted cards included).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ValidationBenchmark {
+
+    private Job[] jobs;
+    private Job[] canonical;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        List<Job> corpus = Fixtures.corpusJobs();
+        jobs = corpus.toArray(new Job[0]);
+        canonical = new Job[jobs.length];
+        for (int i = 0; i < jobs.length; i++) {
+            canonical[i] = new Job();
+            canonical[i].setTitle(jobs[i].getTitle());
+            canonical[i].setCompany(jobs[i].getCompany());
+            canonical[i].setUrl(JobKeys.canonicalUrl(jobs[i].getUrl()));
+        }
+    }
+
+    @Benchmark
+    public boolean isValid() {
+        return JobValidator.isValid(nextJob());
+    }
+
+    @Benchmark
+    public String canonicalUrl() {
+        return JobKeys.canonicalUrl(nextJob().getUrl());
+    }
+
+    // Against pre-canonicalized copies, so this is the key computation alone
+    @Benchmark
+    public long jobKey() {
+        Job job = canonical[next];
+        next = next + 1 == canonical.length ? 0 : next + 1;
+        return JobKeys.jobKey(job);
+    }
+
+    private Job nextJob() {
+        Job job = jobs[next];
+        next = next + 1 == jobs.length ? 0 : next + 1;
+        return job;
+    }
+}
@@ -0,0 +1,40 @@
+package com.jobupdater;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Fan-out of live events between the replicas serving clients, so a client connected to one
+ * replica also sees the jobs and scrape status of the others. Each replica keeps its own
+ * in-memory STOMP broker; this only carries the events between brokers.
+ *
+ * Which transport is used is set by scraper.broadcast.fanout: "local" (the default) only
+ * reaches instances in the same JVM, "postgres" goes through LISTEN/NOTIFY on the shared
+ * database. Delivery is best effort: an event sent while a replica is reconnecting is lost,
+ * and its clients catch up on their next refresh.
+ *
+ * Senders batch per replica (one event per broadcast window, not per job), and an event is
+ * never delivered back to the replica that sent it.
+ */
+public interface ClusterEvents {
+
+    String JOBS = "jobs";
+    String LINKS = "links";
+    String STATUS = "status";
+    String FEED = "feed";
+
+    // Postgres NOTIFY payloads must stay under 8000 bytes; senders split larger batches
+    int MAX_PAYLOAD = 7500;
+
+    String getNodeId();
+
+    // Changes each time this replica (re)starts receiving the other replicas' events, and is -1
+    // while it is not receiving them. State kept current by events is complete only if it was
+    // loaded from the database after the current value appeared.
+    long eventEpoch();
+
+    // Sends one event to every other replica
+    void publish(String kind, String payload);
+
+    // Handler for events of one kind from other replicas, called with (sender node id, payload)
+    void subscribe(String kind, BiConsumer<String, String> handler);
+}
@@ -0,0 +1,49 @@
+package com.jobupdater;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The experience level a job's title and description suggest: FRESHER, EXPERIENCED or UNKNOWN.
+ *
+ * Worked out once at ingest and stored in jobs.experience, so the feed filters on an indexed
+ * column instead of matching keywords against every description. Mirrors detectExperience()
+ * in the frontend's JobFeed.tsx; V6__job_experience.sql holds a frozen copy for old rows.
+ */
+public final class ExperienceLevel {
+
+    public static final String FRESHER = "FRESHER";
+    public static final String EXPERIENCED = "EXPERIENCED";
+    public static final String UNKNOWN = "UNKNOWN";
+
+    // Fresher keywords win over experienced ones
+    private static final List<String> FRESHER_KEYWORDS = Arrays.asList("intern", "internship", "fresher",
+            "graduate", "trainee", "entry level", "junior", "0-1 year", "0-2 years");
+    private static final List<String> EXPERIENCED_KEYWORDS = Arrays.asList("senior", "lead", "principal",
+            "manager", "architect", "head", "years experience", "mid-senior");
+
+    private ExperienceLevel() {
+    }
+
+    public static String of(String title, String description) {
+        String titleText = title == null ? "" : title.toLowerCase(Locale.ROOT);
+        String descriptionText = description == null ? "" : description.toLowerCase(Locale.ROOT);
+        if (mentionsAny(titleText, descriptionText, FRESHER_KEYWORDS)) {
+            return FRESHER;
+        }
+        if (mentionsAny(titleText, descriptionText, EXPERIENCED_KEYWORDS)) {
+            return EXPERIENCED;
+        }
+        return UNKNOWN;
+    }
+
+    private static boolean mentionsAny(String title, String description, List<String> keywords) {
+        for (String keyword : keywords) {
+            if (title.contains(keyword) || description.contains(keyword)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,196 @@
+package com.jobupdater;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialized responses of the read-only feed endpoints (pages, search results, stats), so a
+ * repeat request costs a map lookup instead of a query and a serialization.
+ *
+ * Entries are keyed by path plus the sorted query parameters and stamped with the feed
+ * version. Anything that changes what the feed shows (ingest inserting jobs or links, a
+ * status update) calls {@link #changed()}, which bumps the version and so invalidates every
+ * entry at once; other replicas get the bump through {@link ClusterEvents}. The cache is
+ * bounded by scraper.feed.cache-size and evicts least recently used entries.
+ *
+ * Responses carry a strong ETag of the body, so they agree across replicas, and are
+ * revalidated by browsers on every load (Cache-Control: no-cache): an unchanged feed answers
+ * 304 with no body. Clients that accept gzip get a copy compressed once per entry.
+ */
+@Component
+public class FeedCache {
+
+    // Below this compressing costs more than it saves
+    private static final int MIN_GZIP_BYTES = 1024;
+
+    private final ObjectMapper json;
+    private final ClusterEvents clusterEvents;
+    private final ScraperMetrics scraperMetrics;
+    private final long maxBytes;
+    private final AtomicLong version = new AtomicLong();
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long bytes = 0;
+
+    @Autowired
+    public FeedCache(ObjectMapper objectMapper, ClusterEvents clusterEvents, ScraperProperties properties,
+            ScraperMetrics scraperMetrics) {
+        this.json = objectMapper;
+        this.clusterEvents = clusterEvents;
+        this.scraperMetrics = scraperMetrics;
+        this.maxBytes = properties.getFeed().getCacheSize().toBytes();
+        clusterEvents.subscribe(ClusterEvents.FEED, (node, payload) -> version.incrementAndGet());
+    }
+
+    // The feed changed on this replica; drops every cached response here and on the others
+    public void changed() {
+        version.incrementAndGet();
+        clusterEvents.publish(ClusterEvents.FEED, "");
+    }
+
+    /**
+     * The cached response for this request, loading and serializing it on a miss. Answers 304
+     * when the request's If-None-Match already names the current body.
+     */
+    public ResponseEntity<byte[]> respond(HttpServletRequest request, Supplier<Object> loader) {
+        String key = key(request);
+        long current = version.get();
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+        }
+        if (entry == null || entry.version != current) {
+            // Stamped with the version read before loading, so a change during the load still invalidates it
+            entry = new Entry(current, serialize(loader.get()));
+            store(key, entry);
+            scraperMetrics.feedCache("miss");
+        } else {
+            scraperMetrics.feedCache("hit");
+        }
+
+        boolean gzip = entry.gzipped != null && acceptsGzip(request);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(gzip ? entry.etag.substring(0, entry.etag.length() - 1) + "-gzip\"" : entry.etag);
+        headers.setCacheControl(CacheControl.noCache());
+        headers.setVary(Collections.singletonList(HttpHeaders.ACCEPT_ENCODING));
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), entry.etag)) {
+            scraperMetrics.feedCache("not_modified");
+            return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+        }
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+            return new ResponseEntity<>(entry.gzipped, headers, HttpStatus.OK);
+        }
+        return new ResponseEntity<>(entry.body, headers, HttpStatus.OK);
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return json.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize feed response", e);
+        }
+    }
+
+    private synchronized void store(String key, Entry entry) {
+        Entry old = entries.put(key, entry);
+        if (old != null) {
+            bytes -= old.size();
+        }
+        bytes += entry.size();
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            Entry evicted = eldest.next();
+            eldest.remove();
+            bytes -= evicted.size();
+        }
+    }
+
+    // Path plus the query parameters in a fixed order, so "a=1&b=2" and "b=2&a=1" share an entry
+    private static String key(HttpServletRequest request) {
+        StringBuilder key = new StringBuilder(request.getRequestURI());
+        Map<String, String[]> params = new TreeMap<>(request.getParameterMap());
+        for (Map.Entry<String, String[]> param : params.entrySet()) {
+            key.append(key.indexOf("?") < 0 ? '?' : '&').append(param.getKey()).append('=')
+                    .append(String.join(",", param.getValue()));
+        }
+        return key.toString();
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return accept != null && accept.toLowerCase(Locale.ROOT).contains("gzip");
+    }
+
+    // If-None-Match compares weakly; either encoding's tag names the same content
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String base = etag.substring(1, etag.length() - 1);
+        for (String tag : ifNoneMatch.split(",")) {
+            String candidate = tag.trim();
+            if (candidate.equals("*")) {
+                return true;
+            }
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals("\"" + base + "\"") || candidate.equals("\"" + base + "-gzip\"")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static class Entry {
+        final long version;
+        final byte[] body;
+        final String etag;
+        // Compressed once per entry and reused for every client that accepts gzip; null for small bodies
+        final byte[] gzipped;
+
+        Entry(long version, byte[] body) {
+            this.version = version;
+            this.body = body;
+            this.etag = "\"" + Long.toHexString(JobKeys.hash64(new String(body, StandardCharsets.UTF_8))) + "\"";
+            this.gzipped = body.length >= MIN_GZIP_BYTES ? gzip(body) : null;
+        }
+
+        long size() {
+            return body.length + (gzipped == null ? 0 : gzipped.length) + 128;
+        }
+
+        private static byte[] gzip(byte[] body) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+                gzip.write(body);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.jobupdater;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Append-only log of the jobs waiting in {@link IngestQueue}, so jobs scraped but not yet
+ * written survive a restart.
+ *
+ * Jobs go to segment files ingest-&lt;n&gt;.log in scraper.ingest.journal-dir, one JSON job per
+ * line, flushed to the OS per job (a crashed process loses nothing; a crashed machine may lose
+ * the last writes). Every job gets the next sequence number; once the writer has passed the
+ * last job of a segment the segment is deleted, and an idle journal is emptied.
+ *
+ * On startup whatever segments are left are read back and written again. That is safe because
+ * ingest drops jobs that are already stored, so the journal only has to be at-least-once.
+ */
+class IngestJournal {
+
+    // A busy journal starts a new segment after this many jobs so written ones can be deleted
+    private static final int SEGMENT_JOBS = 5000;
+    private static final Pattern SEGMENT_NAME = Pattern.compile("ingest-(\\d+)\\.log");
+
+    private final Path dir;
+    private final ObjectMapper json;
+    // Oldest first; the last one is being appended to
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private Writer out;
+    private long nextSeq = 0;
+
+    IngestJournal(Path dir, ObjectMapper json) {
+        this.dir = dir;
+        this.json = json;
+    }
+
+    // Opens the journal and returns the jobs a previous process left unwritten, oldest first.
+    // Their sequence numbers are 0 .. size - 1.
+    synchronized List<Job> recover() throws IOException {
+        Files.createDirectories(dir);
+        TreeMap<Long, Path> found = new TreeMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "ingest-*.log")) {
+            for (Path file : files) {
+                Matcher name = SEGMENT_NAME.matcher(file.getFileName().toString());
+                if (name.matches()) {
+                    found.put(Long.parseLong(name.group(1)), file);
+                }
+            }
+        }
+
+        List<Job> jobs = new ArrayList<>();
+        for (Map.Entry<Long, Path> file : found.entrySet()) {
+            Segment segment = new Segment(file.getKey(), file.getValue(), nextSeq);
+            try (BufferedReader in = Files.newBufferedReader(file.getValue(), StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    try {
+                        jobs.add(json.readValue(line, Job.class));
+                        nextSeq++;
+                    } catch (IOException e) {
+                        // A line cut short by a crash
+                        System.err.println("Skipping unreadable line in " + file.getValue() + ": " + e.getMessage());
+                    }
+                }
+            }
+            segment.endSeq = nextSeq;
+            if (segment.endSeq > segment.firstSeq) {
+                segments.addLast(segment);
+            } else {
+                Files.deleteIfExists(file.getValue());
+            }
+        }
+        open(found.isEmpty() ? 0 : found.lastKey() + 1);
+        return jobs;
+    }
+
+    // Appends one job and returns its sequence number
+    synchronized long append(Job job) throws IOException {
+        Segment active = segments.peekLast();
+        if (active.endSeq - active.firstSeq >= SEGMENT_JOBS) {
+            out.close();
+            active = open(active.number + 1);
+        }
+        out.write(json.writeValueAsString(job));
+        out.write('\n');
+        out.flush();
+        active.endSeq = ++nextSeq;
+        return nextSeq - 1;
+    }
+
+    // Every job up to and including seq has been written (or given up on)
+    synchronized void written(long seq) {
+        try {
+            while (segments.size() > 1 && segments.peekFirst().endSeq <= seq + 1) {
+                Files.deleteIfExists(segments.removeFirst().file);
+            }
+            Segment active = segments.peekLast();
+            if (segments.size() == 1 && active.endSeq > active.firstSeq && active.endSeq <= seq + 1) {
+                // Nothing is waiting: start over with an empty segment
+                out.close();
+                open(active.number + 1);
+                segments.removeFirst();
+                Files.deleteIfExists(active.file);
+            }
+        } catch (IOException e) {
+            System.err.println("Could not clean up ingest journal: " + e.getMessage());
+        }
+    }
+
+    synchronized void close() {
+        try {
+            if (out != null) {
+                out.close();
+            }
+        } catch (IOException e) {
+            System.err.println("Could not close ingest journal: " + e.getMessage());
+        }
+    }
+
+    // Caller holds the lock
+    private Segment open(long number) throws IOException {
+        Segment segment = new Segment(number, dir.resolve("ingest-" + number + ".log"), nextSeq);
+        out = Files.newBufferedWriter(segment.file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        segments.addLast(segment);
+        return segment;
+    }
+
+    private static class Segment {
+        final long number;
+        final Path file;
+        final long firstSeq;
+        // One past the last job's sequence number
+        long endSeq;
+
+        Segment(long number, Path file, long firstSeq) {
+            this.number = number;
+            this.file = file;
+            this.firstSeq = firstSeq;
+            this.endSeq = firstSeq;
+        }
+    }
+}
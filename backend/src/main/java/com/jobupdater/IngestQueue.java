@@ -0,0 +1,307 @@
+package com.jobupdater;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hands validated jobs from the scrape workers to one writer thread, so browser time and
+ * database time overlap instead of adding up.
+ *
+ * Scrape runs add jobs through a {@link Run}; the writer takes them in batches of
+ * scraper.ingest.batch-size (or whatever has arrived once the oldest job has waited
+ * max-delay, or as soon as a run finishes), saves them with {@link JobIngestor} and
+ * broadcasts the new ones. At most scraper.ingest.queue-capacity jobs wait at a time; past
+ * that, adding blocks, which slows the scrapers down to the database's pace.
+ *
+ * A batch that fails is retried a few times with a growing pause before it is dropped. With
+ * scraper.ingest.journal-dir set, queued jobs are also appended to an {@link IngestJournal}
+ * and written on the next start if the process stops before it gets to them.
+ */
+@Component
+public class IngestQueue {
+
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long SHUTDOWN_MILLIS = 10000;
+
+    private final JobIngestor jobIngestor;
+    private final JobBroadcaster jobBroadcaster;
+    private final ScrapeProgress scrapeProgress;
+    private final ScraperMetrics scraperMetrics;
+    private final ScraperProperties.Ingest config;
+    private final IngestJournal journal;
+    private final Semaphore capacity;
+    private final BlockingQueue<Entry> queue;
+    private final Thread writer = new Thread(this::writeLoop, "job-ingest");
+    private volatile boolean running = true;
+    // Set once a batch was kept back at shutdown; the journal must not move past it after that
+    private boolean journalHeld = false;
+
+    @Autowired
+    public IngestQueue(JobIngestor jobIngestor, JobBroadcaster jobBroadcaster, ScrapeProgress scrapeProgress,
+            ScraperMetrics scraperMetrics, ScraperProperties properties, ObjectMapper objectMapper) {
+        this.jobIngestor = jobIngestor;
+        this.jobBroadcaster = jobBroadcaster;
+        this.scrapeProgress = scrapeProgress;
+        this.scraperMetrics = scraperMetrics;
+        this.config = properties.getIngest();
+        String journalDir = config.getJournalDir();
+        this.journal = journalDir == null || journalDir.trim().isEmpty()
+                ? null : new IngestJournal(Paths.get(journalDir.trim()), objectMapper);
+        this.capacity = new Semaphore(Math.max(1, config.getQueueCapacity()));
+        this.queue = scraperMetrics.monitorIngestQueue(new LinkedBlockingQueue<>());
+        writer.setDaemon(true);
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (journal != null) {
+            // Replayed jobs go in ahead of anything new and don't count against the capacity
+            List<Job> unwritten = journal.recover();
+            for (int i = 0; i < unwritten.size(); i++) {
+                queue.add(new Entry(unwritten.get(i), null, i, false));
+            }
+            if (!unwritten.isEmpty()) {
+                System.out.println("Replaying " + unwritten.size() + " unwritten jobs from the ingest journal");
+            }
+        }
+        writer.start();
+    }
+
+    public Run startRun(String source) {
+        return new Run(source);
+    }
+
+    private void writeLoop() {
+        List<Entry> batch = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                Entry first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                boolean flush = first.job == null;
+                if (!flush) {
+                    batch.add(first);
+                }
+                long deadline = System.currentTimeMillis() + config.getMaxDelay().toMillis();
+                while (!flush && batch.size() < config.getBatchSize()) {
+                    long wait = deadline - System.currentTimeMillis();
+                    // With the capacity used up no more jobs can arrive until this batch is written
+                    Entry next = wait > 0 && capacity.availablePermits() > 0
+                            ? queue.poll(wait, TimeUnit.MILLISECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    if (next.job == null) {
+                        flush = true;
+                    } else {
+                        batch.add(next);
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    write(batch);
+                    batch.clear();
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                // Never let the writer die; the batch is lost but its runs must not wait forever
+                System.err.println("Error in ingest writer: " + e.getMessage());
+                finish(batch, Collections.emptyList(), true, true);
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<Entry> batch) throws InterruptedException {
+        List<Job> jobs = new ArrayList<>(batch.size());
+        for (Entry entry : batch) {
+            jobs.add(entry.job);
+        }
+        List<Job> saved = null;
+        for (int attempt = 1; saved == null; attempt++) {
+            try {
+                saved = jobIngestor.ingest(jobs);
+            } catch (Exception e) {
+                if (!running && journal != null) {
+                    // Shutting down: leave the batch in the journal for the next start
+                    System.err.println("Error saving batch of " + jobs.size() + " jobs, keeping it for the next start: "
+                            + e.getMessage());
+                    journalHeld = true;
+                    finish(batch, Collections.emptyList(), false, true);
+                    return;
+                } else if (attempt >= MAX_ATTEMPTS || !running) {
+                    System.err.println("Error saving batch of " + jobs.size() + " jobs, dropping it: " + e.getMessage());
+                    finish(batch, Collections.emptyList(), true, true);
+                    return;
+                } else {
+                    System.err.println("Error saving batch of " + jobs.size() + " jobs, retrying: " + e.getMessage());
+                    Thread.sleep(1000L << attempt);
+                }
+            }
+        }
+        // Only new rows go out, coalesced with other sources' saves
+        jobBroadcaster.publish(saved);
+        finish(batch, saved, true, false);
+    }
+
+    // Credits saved jobs to their runs and frees the batch's places in the queue (and in the
+    // journal, unless the batch should be written again after a restart). lost means the batch
+    // did not reach the table.
+    private void finish(List<Entry> batch, List<Job> saved, boolean done, boolean lost) {
+        Set<Job> savedJobs = Collections.newSetFromMap(new IdentityHashMap<>());
+        savedJobs.addAll(saved);
+        Map<Run, Integer> savedByRun = new LinkedHashMap<>();
+        int permits = 0;
+        long lastSeq = -1;
+        int replayed = 0;
+        for (Entry entry : batch) {
+            boolean isSaved = savedJobs.contains(entry.job);
+            if (entry.run != null) {
+                savedByRun.merge(entry.run, isSaved ? 1 : 0, Integer::sum);
+            } else if (isSaved) {
+                replayed++;
+            }
+            if (entry.permit) {
+                permits++;
+            }
+            lastSeq = Math.max(lastSeq, entry.seq);
+        }
+        savedByRun.forEach((run, count) -> {
+            scrapeProgress.saved(run.source, count);
+            scraperMetrics.saved(run.source, count);
+        });
+        if (replayed > 0) {
+            System.out.println("Saved " + replayed + " jobs replayed from the ingest journal");
+        }
+        if (journal != null && done && !journalHeld && lastSeq >= 0) {
+            journal.written(lastSeq);
+        }
+        capacity.release(permits);
+        // Runs are told last, so a finished run's counts are already in the status
+        for (Entry entry : batch) {
+            if (entry.run != null) {
+                entry.run.written(savedJobs.contains(entry.job), lost);
+            }
+        }
+    }
+
+    private void add(Run run, Job job) {
+        try {
+            capacity.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing a job for saving");
+        }
+        synchronized (run) {
+            run.outstanding++;
+        }
+        // Journal order and queue order must agree, so both happen under the journal's lock
+        if (journal == null) {
+            queue.add(new Entry(job, run, -1, true));
+            return;
+        }
+        synchronized (journal) {
+            long seq;
+            try {
+                seq = journal.append(job);
+            } catch (IOException e) {
+                System.err.println("Could not journal job, it is only queued in memory: " + e.getMessage());
+                seq = -1;
+            }
+            queue.add(new Entry(job, run, seq, true));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // Whatever is still queued after this stays in the journal for the next start
+        running = false;
+        writer.join(SHUTDOWN_MILLIS);
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    /**
+     * The jobs of one scrape run. {@link #add} blocks while the queue is full;
+     * {@link #finish} waits for the run's jobs to be written.
+     */
+    public class Run {
+        private final String source;
+        private int outstanding;
+        private int saved;
+        private int lost;
+
+        private Run(String source) {
+            this.source = source;
+        }
+
+        public void add(Job job) {
+            IngestQueue.this.add(this, job);
+        }
+
+        // Writes out the run's last jobs without waiting for a full batch and returns how many were new
+        public synchronized int finish() throws InterruptedException {
+            if (outstanding > 0) {
+                queue.add(new Entry(null, null, -1, false));
+            }
+            while (outstanding > 0) {
+                wait();
+            }
+            return saved;
+        }
+
+        // Jobs of the run whose batch never reached the table; valid once finish() returned
+        public synchronized int lost() {
+            return lost;
+        }
+
+        private synchronized void written(boolean isSaved, boolean isLost) {
+            outstanding--;
+            if (isSaved) {
+                saved++;
+            }
+            if (isLost) {
+                lost++;
+            }
+            if (outstanding == 0) {
+                notifyAll();
+            }
+        }
+    }
+
+    // One queued job; a null job asks the writer to write what it has now
+    private static class Entry {
+        final Job job;
+        final Run run;
+        // Journal sequence number, -1 if not journaled
+        final long seq;
+        // Holds one unit of queue capacity
+        final boolean permit;
+
+        Entry(Job job, Run run, long seq, boolean permit) {
+            this.job = job;
+            this.run = run;
+            this.seq = seq;
+            this.permit = permit;
+        }
+    }
+}
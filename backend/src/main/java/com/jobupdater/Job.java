@@ -1,12 +1,24 @@
 package com.jobupdater;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import javax.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.hibernate.annotations.BatchSize;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 @Entity
 @Data
-@Table(name = "jobs")
+@Table(name = "jobs", indexes = {
+        // Created by the Flyway migrations; listed here so the mapping documents them
+        @Index(name = "ux_jobs_job_key", columnList = "jobKey", unique = true),
+        @Index(name = "ix_jobs_content_key", columnList = "contentKey"),
+        @Index(name = "ix_jobs_status_posted_at", columnList = "status, postedAt DESC, id DESC"),
+        @Index(name = "ix_jobs_status_experience_posted_at", columnList = "status, experience, postedAt DESC, id DESC")
+})
 public class Job {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -24,13 +36,33 @@ public class Job {
     @Column(columnDefinition = "TEXT")
     private String description;
 
-    @Column(columnDefinition = "TEXT")
+    @Column(length = 2048)
     private String url;
 
     private String source; // e.g., "LinkedIn", "Indeed"
 
     private String status = "NEW"; // NEW, APPLIED, DRAFT
 
+    // FRESHER, EXPERIENCED or UNKNOWN, see ExperienceLevel; set by JobIngestor
+    @Column(length = 20, nullable = false)
+    private String experience = ExperienceLevel.UNKNOWN;
+
+    // Dedup keys, see JobKeys; set by JobIngestor
+    @JsonIgnore
+    @Column(nullable = false)
+    private Long jobKey;
+
+    @JsonIgnore
+    private Long contentKey;
+
+    // The same opening on other sources; loaded for a whole page of jobs at a time
+    @OneToMany(fetch = FetchType.LAZY)
+    @JoinColumn(name = "job_id", insertable = false, updatable = false)
+    @BatchSize(size = 100)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private List<JobLink> links = new ArrayList<>();
+
     private LocalDateTime postedAt;
     private LocalDateTime discoveredAt;
 
@@ -0,0 +1,177 @@
+package com.jobupdater;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Pushes newly saved jobs to /topic/jobs.
+ *
+ * Saves that land within the broadcast window are coalesced into one {@link JobUpdate}, so a
+ * burst of batches from several sources costs clients one message. Each message gets the next
+ * sequence number and is kept in a bounded history, which {@link #since} serves to clients
+ * that reconnect and want everything after the last sequence number they saw.
+ *
+ * Other replicas get the ids of this replica's new jobs through {@link ClusterEvents}, one
+ * event per flush, and load them with a single query. Jobs that arrive that way go out to this
+ * replica's clients with its next flush, so every client sees every replica's jobs, and are
+ * handed to {@link JobIngestor#savedElsewhere} for this replica's dedup and search indexes. Sequence
+ * numbers and history are per replica; {@link #since} reports an incomplete history to a
+ * client whose last sequence number came from a different replica.
+ */
+@Component
+public class JobBroadcaster {
+
+    private static final String JOB_COLUMNS =
+            "id, title, company, location, description, url, source, status, experience, posted_at, discovered_at, "
+            + "job_key, content_key";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ClusterEvents clusterEvents;
+    private final JdbcTemplate jdbcTemplate;
+    private final JobIngestor jobIngestor;
+    private final ScraperProperties.Broadcast config;
+    private final ScraperMetrics scraperMetrics;
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "job-broadcast");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final List<Job> pending = new ArrayList<>();
+    // Ids of the pending jobs saved here, for the other replicas
+    private final List<Long> pendingLocalIds = new ArrayList<>();
+    private final Deque<JobUpdate> history = new ArrayDeque<>();
+    private int historyJobs = 0;
+    private long seq = 0;
+
+    @Autowired
+    public JobBroadcaster(SimpMessagingTemplate messagingTemplate, ClusterEvents clusterEvents,
+            JdbcTemplate jdbcTemplate, JobIngestor jobIngestor, ScraperProperties properties,
+            ScraperMetrics scraperMetrics) {
+        this.messagingTemplate = messagingTemplate;
+        this.clusterEvents = clusterEvents;
+        this.jdbcTemplate = jdbcTemplate;
+        this.jobIngestor = jobIngestor;
+        this.config = properties.getBroadcast();
+        this.scraperMetrics = scraperMetrics;
+        clusterEvents.subscribe(ClusterEvents.JOBS, this::received);
+    }
+
+    // Queues jobs saved on this replica
+    public synchronized void publish(List<Job> saved) {
+        enqueue(saved);
+        for (Job job : saved) {
+            pendingLocalIds.add(job.getId());
+        }
+    }
+
+    // Caller holds the lock; the first job into an empty buffer schedules the flush
+    private void enqueue(List<Job> jobs) {
+        if (jobs.isEmpty()) {
+            return;
+        }
+        if (pending.isEmpty()) {
+            flusher.schedule(this::flush, config.getWindow().toMillis(), TimeUnit.MILLISECONDS);
+        }
+        pending.addAll(jobs);
+    }
+
+    // Ids of jobs another replica saved, comma separated
+    private void received(String node, String payload) {
+        List<Long> ids = new ArrayList<>();
+        for (String id : payload.split(",")) {
+            if (!id.isEmpty()) {
+                ids.add(Long.parseLong(id));
+            }
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+        String placeholders = String.join(",", Collections.nCopies(ids.size(), "?"));
+        List<Job> jobs = jdbcTemplate.query("SELECT " + JOB_COLUMNS + " FROM jobs WHERE id IN (" + placeholders
+                + ") ORDER BY id", new BeanPropertyRowMapper<>(Job.class), ids.toArray());
+        jobIngestor.savedElsewhere(jobs);
+        synchronized (this) {
+            enqueue(jobs);
+        }
+    }
+
+    /**
+     * Jobs broadcast after the given sequence number. "complete" is false when the history no
+     * longer reaches back that far (or the server restarted, or the sequence number came from
+     * another replica), in which case the client should reload the feed instead.
+     */
+    public synchronized Map<String, Object> since(long after, String node) {
+        List<Job> jobs = new ArrayList<>();
+        long oldest = history.isEmpty() ? seq + 1 : history.peekFirst().getSeq();
+        for (JobUpdate update : history) {
+            if (update.getSeq() > after) {
+                jobs.addAll(update.getJobs());
+            }
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("seq", seq);
+        result.put("node", clusterEvents.getNodeId());
+        result.put("complete", (node == null || node.equals(clusterEvents.getNodeId()))
+                && after <= seq && after >= oldest - 1);
+        result.put("jobs", jobs);
+        return result;
+    }
+
+    private void flush() {
+        JobUpdate update;
+        List<Long> localIds;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            update = new JobUpdate(++seq, clusterEvents.getNodeId(), new ArrayList<>(pending));
+            localIds = new ArrayList<>(pendingLocalIds);
+            pending.clear();
+            pendingLocalIds.clear();
+            history.addLast(update);
+            historyJobs += update.getJobs().size();
+            // Always keep the latest update, even if it alone is larger than the history
+            while (historyJobs > config.getHistorySize() && history.size() > 1) {
+                historyJobs -= history.removeFirst().getJobs().size();
+            }
+        }
+        scraperMetrics.broadcast(update.getJobs().size());
+        try {
+            messagingTemplate.convertAndSend("/topic/jobs", update);
+        } catch (Exception e) {
+            System.err.println("Error broadcasting update " + update.getSeq() + ": " + e.getMessage());
+        }
+        forward(localIds);
+    }
+
+    // One event per flush, split only when the ids don't fit in one payload
+    private void forward(List<Long> ids) {
+        int perEvent = ClusterEvents.MAX_PAYLOAD / 20; // a long is at most 19 digits plus a comma
+        for (int from = 0; from < ids.size(); from += perEvent) {
+            clusterEvents.publish(ClusterEvents.JOBS, ids.subList(from, Math.min(ids.size(), from + perEvent))
+                    .stream().map(String::valueOf).collect(Collectors.joining(",")));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdownNow();
+    }
+}
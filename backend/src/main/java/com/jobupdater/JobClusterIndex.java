@@ -0,0 +1,273 @@
+package com.jobupdater;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Data;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+/**
+ * Finds the stored job a newly scraped listing from another source is a near-duplicate of, so
+ * it can be kept as an extra link on that job (the job_links table) instead of a second row.
+ *
+ * Two listings are the same opening when:
+ * - their companies normalize to the same key (punctuation, legal suffixes and spaces dropped,
+ *   aliases from dedup-aliases.json applied, so the "Urbancompany" board slug meets LinkedIn's
+ *   "Urban Company")
+ * - their titles carry the same level words (intern, senior, II, ...) and the SimHash
+ *   fingerprints of the normalized titles are within scraper.dedup.cluster-max-distance bits
+ * - their cities agree, or either side has none (blank, "India", "Remote")
+ * - the stored job has no listing from the new one's source yet
+ *
+ * The index keeps one small entry per stored job, grouped by company key, and is filled from
+ * the jobs and job_links tables on first use. Until that succeeds nothing is clustered. A
+ * source counts as listed on a job once its link row is stored ({@link #linked}), not when
+ * {@link #match} proposes the link.
+ */
+@Component
+public class JobClusterIndex {
+
+    private static final String ALIASES = "/dedup-aliases.json";
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Set<String> LEGAL_SUFFIXES = new HashSet<>(Arrays.asList(
+            "pvt", "private", "ltd", "limited", "inc", "llc", "llp", "corp", "corporation", "co", "plc", "gmbh"));
+    // Title words that make two otherwise similar titles different openings
+    private static final List<String> LEVEL_ORDER = Arrays.asList(
+            "intern", "internship", "trainee", "junior", "senior", "staff", "principal", "lead", "manager",
+            "director", "head", "architect", "1", "2", "3", "4");
+    private static final Set<String> NO_CITY = new HashSet<>(Arrays.asList("", "india", "remote", "anywhere"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int maxDistance;
+    private final Aliases aliases;
+    private final Map<Long, List<Entry>> byCompany = new HashMap<>();
+    private final Map<Long, Entry> byId = new HashMap<>();
+    private boolean warm = false;
+
+    @Autowired
+    public JobClusterIndex(JdbcTemplate jdbcTemplate, ScraperProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxDistance = properties.getDedup().getClusterMaxDistance();
+        this.aliases = loadAliases();
+    }
+
+    // Id of the stored job this listing duplicates, or null if it is a job of its own. taken holds
+    // the jobs earlier listings of the same source in this batch were matched to.
+    public synchronized Long match(Job job, Set<Long> taken) {
+        if (maxDistance < 0 || !ensureWarm()) {
+            return null;
+        }
+        Long company = companyKey(job.getCompany());
+        if (company == null) {
+            return null;
+        }
+        Set<String> tokens = titleTokens(job.getTitle());
+        long title = simHash(tokens);
+        int level = levelOf(tokens);
+        String city = city(job.getLocation());
+        for (Entry entry : byCompany.getOrDefault(company, Collections.emptyList())) {
+            if (entry.level == level && Long.bitCount(entry.titleHash ^ title) <= maxDistance
+                    && (entry.city.isEmpty() || city.isEmpty() || entry.city.equals(city))
+                    && !entry.sources.contains(job.getSource()) && !taken.contains(entry.jobId)) {
+                return entry.jobId;
+            }
+        }
+        return null;
+    }
+
+    // Called for every job inserted as a row of its own
+    public synchronized void added(Job job) {
+        if (warm) {
+            add(job.getId(), job.getTitle(), job.getCompany(), job.getLocation(), job.getSource());
+        }
+    }
+
+    // Called once a link from this source to the stored job is in job_links, here or on another replica
+    public synchronized void linked(long jobId, String source) {
+        Entry entry = byId.get(jobId);
+        if (entry != null) {
+            entry.sources.add(source);
+        }
+    }
+
+    private boolean ensureWarm() {
+        if (warm) {
+            return true;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement("SELECT id, title, company, location, source FROM jobs");
+                ps.setFetchSize(1000);
+                return ps;
+            }, (RowCallbackHandler) rs -> add(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                    rs.getString(5)));
+            jdbcTemplate.query("SELECT job_id, source FROM job_links", (RowCallbackHandler) rs -> {
+                Entry entry = byId.get(rs.getLong(1));
+                if (entry != null) {
+                    entry.sources.add(rs.getString(2));
+                }
+            });
+            warm = true;
+            System.out.println("Job cluster index warmed with " + byId.size() + " jobs in "
+                    + (System.currentTimeMillis() - start) + " ms");
+        } catch (Exception e) {
+            byCompany.clear();
+            byId.clear();
+            System.err.println("Could not warm job cluster index, cross-source clustering is off for now: " + e.getMessage());
+        }
+        return warm;
+    }
+
+    private void add(long jobId, String title, String company, String location, String source) {
+        Long key = companyKey(company);
+        if (key == null) {
+            return;
+        }
+        Set<String> tokens = titleTokens(title);
+        Entry entry = new Entry(jobId, simHash(tokens), levelOf(tokens), city(location));
+        entry.sources.add(source);
+        byCompany.computeIfAbsent(key, k -> new ArrayList<>(2)).add(entry);
+        byId.put(jobId, entry);
+    }
+
+    // Normalized company as a hash, or null for placeholders like "Unknown Company"
+    Long companyKey(String company) {
+        List<String> words = words(company);
+        while (!words.isEmpty() && LEGAL_SUFFIXES.contains(words.get(words.size() - 1))) {
+            words.remove(words.size() - 1);
+        }
+        String name = String.join(" ", words);
+        if (name.isEmpty() || aliases.getPlaceholders().contains(name)) {
+            return null;
+        }
+        String squashed = name.replace(" ", "");
+        String alias = aliases.getCompanies().getOrDefault(name, aliases.getCompanies().get(squashed));
+        return JobKeys.hash64(alias == null ? squashed : alias.replace(" ", ""));
+    }
+
+    // Lower-cased title words with abbreviations expanded; a set, so word order doesn't matter
+    Set<String> titleTokens(String title) {
+        Set<String> tokens = new TreeSet<>();
+        for (String word : words(title)) {
+            String expanded = aliases.getTitleWords().get(word);
+            tokens.addAll(expanded == null ? List.of(word) : Arrays.asList(expanded.split(" ")));
+        }
+        return tokens;
+    }
+
+    // The level words present, as a bit set over LEVEL_ORDER
+    private static int levelOf(Set<String> tokens) {
+        int level = 0;
+        int bit = 0;
+        for (String word : LEVEL_ORDER) {
+            if (tokens.contains(word)) {
+                level |= 1 << bit;
+            }
+            bit++;
+        }
+        return level;
+    }
+
+    String city(String location) {
+        String first = location == null ? "" : location.split("[,/|(]")[0];
+        String city = String.join(" ", words(first));
+        if (NO_CITY.contains(city) || city.contains("remote")) {
+            return "";
+        }
+        return aliases.getCities().getOrDefault(city, city);
+    }
+
+    // 64-bit SimHash over the title words and their character trigrams, so a shared word still
+    // counts for something when one side spells it differently ("frontend" / "front end")
+    static long simHash(Set<String> tokens) {
+        int[] weights = new int[64];
+        for (String token : tokens) {
+            addFeature(weights, JobKeys.hash64(token), 3);
+            String padded = " " + token + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                addFeature(weights, JobKeys.hash64(padded.substring(i, i + 3)), 1);
+            }
+        }
+        long hash = 0;
+        for (int bit = 0; bit < 64; bit++) {
+            if (weights[bit] > 0) {
+                hash |= 1L << bit;
+            }
+        }
+        return hash;
+    }
+
+    private static void addFeature(int[] weights, long feature, int weight) {
+        for (int bit = 0; bit < 64; bit++) {
+            weights[bit] += ((feature >>> bit) & 1) == 1 ? weight : -weight;
+        }
+    }
+
+    private static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text != null) {
+            for (String word : NON_WORD.split(text.toLowerCase(Locale.ROOT).replace("'", ""))) {
+                if (!word.isEmpty()) {
+                    words.add(word);
+                }
+            }
+        }
+        return words;
+    }
+
+    private static Aliases loadAliases() {
+        ObjectMapper json = new ObjectMapper().enable(JsonParser.Feature.ALLOW_COMMENTS);
+        try (InputStream in = JobClusterIndex.class.getResourceAsStream(ALIASES)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing " + ALIASES + " on the classpath");
+            }
+            return json.readValue(in, Aliases.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Data
+    static class Aliases {
+        private Map<String, String> companies = new LinkedHashMap<>();
+        private Set<String> placeholders = new HashSet<>();
+        private Map<String, String> cities = new LinkedHashMap<>();
+        private Map<String, String> titleWords = new LinkedHashMap<>();
+    }
+
+    private static class Entry {
+        final long jobId;
+        final long titleHash;
+        final int level;
+        final String city;
+        // Sources with a stored listing of this job, the job's own included
+        final Set<String> sources = new HashSet<>(2);
+
+        Entry(long jobId, long titleHash, int level, String city) {
+            this.jobId = jobId;
+            this.titleHash = titleHash;
+            this.level = level;
+            this.city = city;
+        }
+    }
+}
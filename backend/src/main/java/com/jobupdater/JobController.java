@@ -1,12 +1,16 @@
 package com.jobupdater;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.List;
+import javax.servlet.http.HttpServletRequest;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/jobs")
@@ -16,12 +20,68 @@ public class JobController {
     @Autowired
     private JobRepository jobRepository;
 
+    @Autowired
+    private JobFeedService jobFeedService;
+
+    @Autowired
+    private JobBroadcaster jobBroadcaster;
+
+    @Autowired
+    private ScrapeProgress scrapeProgress;
+
+    @Autowired
+    private FeedCache feedCache;
+
+    // Keyset-paginated feed: filters are applied in the database and each call returns one page plus a cursor.
+    // Pages, search results and stats are served from FeedCache until the jobs change.
     @GetMapping
-    public List<Job> getAllJobs() {
-        System.out.println("Received request to fetch all jobs");
-        List<Job> jobs = jobRepository.findAll();
-        System.out.println("Returning " + jobs.size() + " jobs");
-        return jobs;
+    public ResponseEntity<byte[]> getJobs(JobFeedQuery query, HttpServletRequest request) {
+        return feedCache.respond(request, () -> jobFeedService.findPage(query));
+    }
+
+    // Full-text search ranked by relevance; q is required, the other feed filters narrow the hits
+    @GetMapping("/search")
+    public ResponseEntity<byte[]> search(JobFeedQuery query, HttpServletRequest request) {
+        if (query.getQ() == null || query.getQ().trim().isEmpty()) {
+            throw new org.springframework.web.server.ResponseStatusException(
+                    org.springframework.http.HttpStatus.BAD_REQUEST, "q is required");
+        }
+        return feedCache.respond(request, () -> jobFeedService.search(query));
+    }
+
+    // Catch-up for live clients: the jobs broadcast on /topic/jobs after sequence number "since"
+    @GetMapping("/updates")
+    public Map<String, Object> getUpdates(@org.springframework.web.bind.annotation.RequestParam long since,
+            @org.springframework.web.bind.annotation.RequestParam(required = false) String node) {
+        return jobBroadcaster.since(since, node);
+    }
+
+    // Current scrape state, the same snapshot pushed to /topic/status when it changes
+    @GetMapping("/progress")
+    public Map<String, Object> getProgress() {
+        return scrapeProgress.snapshot();
+    }
+
+    // Tab counts and the platform filter options, so the client doesn't need the whole table
+    @GetMapping("/stats")
+    public ResponseEntity<byte[]> getStats(HttpServletRequest request) {
+        return feedCache.respond(request, () -> {
+            Map<String, Long> statusCounts = new HashMap<>();
+            for (Object[] row : jobRepository.countByStatus()) {
+                statusCounts.put((String) row[0], (Long) row[1]);
+            }
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("statusCounts", statusCounts);
+            stats.put("sources", jobRepository.findDistinctSources());
+            return stats;
+        });
+    }
+
+    // The full job, description included; the feed listings leave it out
+    @GetMapping("/{id:\\d+}")
+    public Job getJob(@org.springframework.web.bind.annotation.PathVariable Long id) {
+        return jobRepository.findById(id).orElseThrow(() -> new org.springframework.web.server.ResponseStatusException(
+                org.springframework.http.HttpStatus.NOT_FOUND, "Job not found"));
     }
 
     @org.springframework.web.bind.annotation.PutMapping("/{id}/status")
@@ -29,6 +89,8 @@ public class JobController {
             @org.springframework.web.bind.annotation.RequestBody String status) {
         Job job = jobRepository.findById(id).orElseThrow(() -> new RuntimeException("Job not found"));
         job.setStatus(status);
-        return jobRepository.save(job);
+        Job saved = jobRepository.save(job);
+        feedCache.changed();
+        return saved;
     }
 }
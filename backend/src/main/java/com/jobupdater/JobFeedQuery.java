@@ -0,0 +1,34 @@
+package com.jobupdater;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Query parameters for GET /api/jobs, bound straight from the request.
+ */
+@Data
+public class JobFeedQuery {
+
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+
+    private String status; // NEW, APPLIED, DRAFT
+
+    private List<String> source = new ArrayList<>();
+
+    private String q; // case-insensitive match on title or company; full-text terms for /search
+
+    private String experience; // ALL, FRESHER, EXPERIENCED
+
+    private String sort = "newest"; // newest, oldest, company
+
+    private String cursor; // opaque, taken from the previous page's nextCursor
+
+    private int limit = DEFAULT_LIMIT;
+
+    public int effectiveLimit() {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+}
@@ -0,0 +1,289 @@
+package com.jobupdater;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CompoundSelection;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keyset-paginated, server-side filtered reads for the job feed.
+ *
+ * Pages are ordered by (sort key, id) and the cursor carries the last row's sort key and
+ * id, so fetching page N costs the same as fetching page 1 no matter how large the table is.
+ *
+ * Listings are {@link JobSummary} projections selected by the query itself: no description
+ * leaves the database and no entity is hydrated or dirty-tracked. Links for a page are loaded
+ * with one extra query.
+ */
+@Service
+public class JobFeedService {
+
+    // Ranked ids are resolved against the filters this many at a time
+    private static final int SEARCH_CHUNK = 200;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JobSearchIndex searchIndex;
+
+    public JobFeedService(JobSearchIndex searchIndex) {
+        this.searchIndex = searchIndex;
+    }
+
+    @Transactional(readOnly = true)
+    public JobPage<JobSummary> findPage(JobFeedQuery query) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<JobSummary> cq = cb.createQuery(JobSummary.class);
+        Root<Job> job = cq.from(Job.class);
+        cq.select(summary(cb, job));
+
+        List<Predicate> predicates = filters(cb, job, query);
+        SortKey sort = SortKey.of(query.getSort());
+        Path<Comparable<Object>> sortPath = job.get(sort.field);
+        Path<Long> id = job.get("id");
+
+        Cursor cursor = Cursor.decode(query.getCursor());
+        if (cursor != null) {
+            predicates.add(after(cb, sort, sortPath, id, cursor));
+        }
+
+        cq.where(predicates.toArray(new Predicate[0]));
+        List<Order> order = new ArrayList<>();
+        if (sort.nullable) {
+            // NULLs sort first on H2 and last on Postgres; put them last everywhere so the cursor means the same
+            order.add(cb.asc(cb.selectCase().when(cb.isNull(sortPath), 1).otherwise(0)));
+        }
+        order.add(sort.descending ? cb.desc(sortPath) : cb.asc(sortPath));
+        order.add(sort.descending ? cb.desc(id) : cb.asc(id));
+        cq.orderBy(order);
+
+        int limit = query.effectiveLimit();
+        // Fetch one extra row to know whether there is a next page
+        List<JobSummary> rows = entityManager.createQuery(cq).setMaxResults(limit + 1).getResultList();
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            rows = new ArrayList<>(rows.subList(0, limit));
+            JobSummary last = rows.get(rows.size() - 1);
+            nextCursor = new Cursor(sort.format(last), last.getId()).encode();
+        }
+        addLinks(rows);
+        return new JobPage<>(rows, nextCursor);
+    }
+
+    /**
+     * Full-text search ordered by relevance. status, source and experience filter the ranked
+     * hits; sort is ignored. The cursor is the position in the ranked list.
+     */
+    @Transactional(readOnly = true)
+    public JobPage<JobSummary> search(JobFeedQuery query) {
+        List<Long> ranked = searchIndex.search(query.getQ());
+        Cursor cursor = Cursor.decode(query.getCursor());
+        int position = cursor == null ? 0 : (int) cursor.id;
+        int limit = query.effectiveLimit();
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        JobFeedQuery filtersOnly = copyWithoutText(query);
+        List<JobSummary> items = new ArrayList<>();
+        String nextCursor = null;
+        while (position < ranked.size() && nextCursor == null) {
+            List<Long> chunk = ranked.subList(position, Math.min(position + SEARCH_CHUNK, ranked.size()));
+            CriteriaQuery<JobSummary> cq = cb.createQuery(JobSummary.class);
+            Root<Job> job = cq.from(Job.class);
+            cq.select(summary(cb, job));
+            List<Predicate> predicates = filters(cb, job, filtersOnly);
+            predicates.add(job.get("id").in(chunk));
+            cq.where(predicates.toArray(new Predicate[0]));
+
+            Map<Long, JobSummary> byId = new HashMap<>();
+            for (JobSummary row : entityManager.createQuery(cq).getResultList()) {
+                byId.put(row.getId(), row);
+            }
+            for (Long id : chunk) {
+                position++;
+                JobSummary row = byId.get(id);
+                if (row == null) {
+                    continue;
+                }
+                if (items.size() == limit) {
+                    // A further match exists; resume from it next time
+                    nextCursor = new Cursor("rank", position - 1).encode();
+                    break;
+                }
+                items.add(row);
+            }
+        }
+        addLinks(items);
+        return new JobPage<>(items, nextCursor);
+    }
+
+    // Rows after the cursor in (sort key, id) order, with NULL sort keys after every other value
+    private static Predicate after(CriteriaBuilder cb, SortKey sort, Path<Comparable<Object>> sortPath, Path<Long> id,
+            Cursor cursor) {
+        Predicate idAfter = sort.descending ? cb.lessThan(id, cursor.id) : cb.greaterThan(id, cursor.id);
+        if (cursor.value == null) {
+            return cb.and(cb.isNull(sortPath), idAfter);
+        }
+        Comparable<Object> value = sort.parse(cursor.value);
+        Predicate valueAfter = sort.descending ? cb.lessThan(sortPath, value) : cb.greaterThan(sortPath, value);
+        Predicate next = cb.or(valueAfter, cb.and(cb.equal(sortPath, value), idAfter));
+        return sort.nullable ? cb.or(next, cb.isNull(sortPath)) : next;
+    }
+
+    // The card fields plus the experience level stored at ingest
+    private CompoundSelection<JobSummary> summary(CriteriaBuilder cb, Root<Job> job) {
+        return cb.construct(JobSummary.class, job.get("id"), job.get("title"), job.get("company"),
+                job.get("location"), job.get("url"), job.get("source"), job.get("status"),
+                job.get("postedAt"), job.get("experience"));
+    }
+
+    // One query for the links of a whole page
+    private void addLinks(List<JobSummary> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        Map<Long, JobSummary> byId = new HashMap<>();
+        for (JobSummary row : rows) {
+            byId.put(row.getId(), row);
+        }
+        List<JobLink> links = entityManager
+                .createQuery("select l from JobLink l where l.jobId in :ids order by l.id", JobLink.class)
+                .setParameter("ids", byId.keySet())
+                .setHint("org.hibernate.readOnly", true)
+                .getResultList();
+        for (JobLink link : links) {
+            byId.get(link.getJobId()).getLinks().add(link);
+        }
+    }
+
+    private static JobFeedQuery copyWithoutText(JobFeedQuery query) {
+        JobFeedQuery copy = new JobFeedQuery();
+        copy.setStatus(query.getStatus());
+        copy.setSource(query.getSource());
+        copy.setExperience(query.getExperience());
+        return copy;
+    }
+
+    private List<Predicate> filters(CriteriaBuilder cb, Root<Job> job, JobFeedQuery query) {
+        List<Predicate> predicates = new ArrayList<>();
+
+        // Plain equality on both keeps the (status, [experience,] posted_at, id) indexes usable
+        if (query.getStatus() != null && !query.getStatus().isEmpty()) {
+            predicates.add(cb.equal(job.get("status"), query.getStatus()));
+        }
+
+        if (query.getSource() != null && !query.getSource().isEmpty()) {
+            predicates.add(job.get("source").in(query.getSource()));
+        }
+
+        if (query.getQ() != null && !query.getQ().trim().isEmpty()) {
+            String pattern = "%" + escapeLike(query.getQ().trim().toLowerCase()) + "%";
+            predicates.add(cb.or(
+                    cb.like(cb.lower(job.get("title")), pattern, '\\'),
+                    cb.like(cb.lower(job.get("company")), pattern, '\\')));
+        }
+
+        if (ExperienceLevel.FRESHER.equals(query.getExperience())
+                || ExperienceLevel.EXPERIENCED.equals(query.getExperience())) {
+            predicates.add(cb.equal(job.get("experience"), query.getExperience()));
+        }
+        return predicates;
+    }
+
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private enum SortKey {
+        NEWEST("postedAt", true, false),
+        OLDEST("postedAt", false, false),
+        COMPANY("company", false, true);
+
+        final String field;
+        final boolean descending;
+        // posted_at is always filled in (V6 backfilled old rows); company may be NULL
+        final boolean nullable;
+
+        SortKey(String field, boolean descending, boolean nullable) {
+            this.field = field;
+            this.descending = descending;
+            this.nullable = nullable;
+        }
+
+        static SortKey of(String name) {
+            if (name != null) {
+                for (SortKey key : values()) {
+                    if (key.name().equalsIgnoreCase(name)) {
+                        return key;
+                    }
+                }
+            }
+            return NEWEST;
+        }
+
+        // null for a NULL sort key, which the cursor encodes as such
+        String format(JobSummary job) {
+            if (this == COMPANY) {
+                return job.getCompany();
+            }
+            return job.getPostedAt() == null ? null : job.getPostedAt().toString();
+        }
+
+        @SuppressWarnings("unchecked")
+        Comparable<Object> parse(String value) {
+            try {
+                return (Comparable<Object>) (Comparable<?>) (this == COMPANY ? value : LocalDateTime.parse(value));
+            } catch (RuntimeException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+            }
+        }
+    }
+
+    // "id" alone when the sort key is NULL, otherwise "id\nvalue"
+    private static class Cursor {
+        final String value;
+        final long id;
+
+        Cursor(String value, long id) {
+            this.value = value;
+            this.id = id;
+        }
+
+        String encode() {
+            String raw = value == null ? String.valueOf(id) : id + "\n" + value;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String encoded) {
+            if (encoded == null || encoded.isEmpty()) {
+                return null;
+            }
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+                int split = raw.indexOf('\n');
+                if (split < 0) {
+                    return new Cursor(null, Long.parseLong(raw));
+                }
+                return new Cursor(raw.substring(split + 1), Long.parseLong(raw.substring(0, split)));
+            } catch (RuntimeException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+            }
+        }
+    }
+}
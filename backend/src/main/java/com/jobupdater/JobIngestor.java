@@ -0,0 +1,363 @@
+package com.jobupdater;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Batch write path for scraped jobs.
+ *
+ * Every job gets its job_key and content_key from {@link JobKeys}, and dedup is equality on
+ * those two indexed BIGINT columns. Jobs are first screened by the in-memory
+ * {@link SeenJobIndex}. Whatever it cannot rule out costs one lookup that resolves both keys
+ * for the whole batch (against jobs and job_links). A new listing that {@link JobClusterIndex}
+ * finds to be another source's copy of a stored job is added to job_links instead, and the
+ * jobs that are new go in with one multi-row INSERT.
+ * The INSERT returns the generated ids so saved jobs can be broadcast with their ids.
+ * On Postgres the insert also carries ON CONFLICT DO NOTHING.
+ *
+ * Saved jobs reach the other replicas' indexes through {@link JobBroadcaster}; stored links are
+ * announced here with a LINKS event carrying their job keys.
+ */
+@Component
+public class JobIngestor {
+
+    private static final String INSERT_PREFIX = "INSERT INTO jobs "
+            + "(title, company, location, description, url, source, status, experience, posted_at, discovered_at, job_key, content_key) VALUES ";
+    private static final String ROW_PLACEHOLDERS = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String LINK_INSERT_PREFIX = "INSERT INTO job_links "
+            + "(job_id, source, url, job_key, content_key, discovered_at) VALUES ";
+    private static final String LINK_PLACEHOLDERS = "(?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SeenJobIndex seenJobIndex;
+    private final JobClusterIndex clusterIndex;
+    private final JobSearchIndex searchIndex;
+    private final ScraperMetrics scraperMetrics;
+    private final FeedCache feedCache;
+    private final ClusterEvents clusterEvents;
+    private volatile Boolean postgres;
+
+    @Autowired
+    public JobIngestor(JdbcTemplate jdbcTemplate, SeenJobIndex seenJobIndex, JobClusterIndex clusterIndex,
+            JobSearchIndex searchIndex, ScraperMetrics scraperMetrics, FeedCache feedCache,
+            ClusterEvents clusterEvents) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.seenJobIndex = seenJobIndex;
+        this.clusterIndex = clusterIndex;
+        this.searchIndex = searchIndex;
+        this.scraperMetrics = scraperMetrics;
+        this.feedCache = feedCache;
+        this.clusterEvents = clusterEvents;
+        clusterEvents.subscribe(ClusterEvents.LINKS, this::linkedElsewhere);
+    }
+
+    /**
+     * Saves the jobs in the batch that are not already stored (same job key or same title +
+     * company). Jobs are expected to be validated and to carry canonical URLs already.
+     *
+     * @return the newly inserted jobs, with ids set (listings stored as links are not included)
+     */
+    public synchronized List<Job> ingest(List<Job> batch) {
+        if (batch.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        // Drop duplicates inside the batch itself first
+        Map<Long, Job> candidates = new LinkedHashMap<>();
+        Set<Long> contentKeys = new HashSet<>();
+        for (Job job : batch) {
+            JobKeys.assign(job);
+            if (!candidates.containsKey(job.getJobKey()) && contentKeys.add(job.getContentKey())) {
+                candidates.put(job.getJobKey(), job);
+            }
+        }
+
+        // Known duplicates are dropped in memory; only "possibly seen" jobs need the lookup query
+        Map<Long, Job> uncertain = new LinkedHashMap<>();
+        candidates.values().removeIf(job -> {
+            SeenJobIndex.Verdict verdict = seenJobIndex.check(job);
+            scraperMetrics.dedupChecked(job.getSource(), verdict == SeenJobIndex.Verdict.KNOWN ? "exactHits"
+                    : verdict == SeenJobIndex.Verdict.NEW ? "bloomMisses" : "dbChecks");
+            if (verdict == SeenJobIndex.Verdict.MAYBE) {
+                uncertain.put(job.getJobKey(), job);
+            }
+            return verdict == SeenJobIndex.Verdict.KNOWN;
+        });
+        if (!uncertain.isEmpty()) {
+            List<Job> checked = new ArrayList<>(uncertain.values());
+            long start = System.nanoTime();
+            removeExisting(uncertain);
+            scraperMetrics.dbLookup(countBySource(checked), System.nanoTime() - start);
+            for (Job job : checked) {
+                if (uncertain.containsKey(job.getJobKey())) {
+                    seenJobIndex.recordFalsePositive();
+                    scraperMetrics.dedupChecked(job.getSource(), "falsePositives");
+                } else {
+                    candidates.remove(job.getJobKey());
+                    seenJobIndex.record(job);
+                }
+            }
+        }
+
+        // Another source's copy of a stored job becomes a link on it
+        Map<Job, Long> links = new LinkedHashMap<>();
+        Map<String, Set<Long>> matchedBySource = new HashMap<>();
+        candidates.values().removeIf(job -> {
+            Set<Long> taken = matchedBySource.computeIfAbsent(job.getSource(), source -> new HashSet<>());
+            Long jobId = clusterIndex.match(job, taken);
+            if (jobId != null) {
+                links.put(job, jobId);
+                taken.add(jobId);
+            }
+            return jobId != null;
+        });
+        if (!links.isEmpty()) {
+            Map<Job, Long> stored = links;
+            try {
+                insertLinks(links);
+            } catch (DuplicateKeyException e) {
+                // Another replica stored some of these since the lookup; keep the rest one by one
+                stored = new LinkedHashMap<>();
+                for (Map.Entry<Job, Long> link : links.entrySet()) {
+                    try {
+                        insertLinks(Collections.singletonMap(link.getKey(), link.getValue()));
+                        stored.put(link.getKey(), link.getValue());
+                    } catch (DuplicateKeyException duplicate) {
+                        // Already stored
+                    }
+                }
+            }
+            stored.forEach((job, jobId) -> clusterIndex.linked(jobId, job.getSource()));
+            countBySource(stored.keySet()).forEach(scraperMetrics::clustered);
+            // Links skipped as duplicates exist too, so all of them are now "seen"
+            links.keySet().forEach(seenJobIndex::record);
+            announceLinks(stored.keySet());
+        }
+
+        if (candidates.isEmpty()) {
+            if (!links.isEmpty()) {
+                feedCache.changed();
+            }
+            return Collections.emptyList();
+        }
+        List<Job> toInsert = new ArrayList<>(candidates.values());
+        long start = System.nanoTime();
+        List<Job> saved;
+        try {
+            saved = insert(toInsert);
+        } catch (DuplicateKeyException e) {
+            // Another replica inserted some of these since the lookup (ON CONFLICT covers this on
+            // Postgres only); insert the rest one by one
+            saved = new ArrayList<>();
+            for (Job job : toInsert) {
+                try {
+                    saved.addAll(insert(Collections.singletonList(job)));
+                } catch (DuplicateKeyException duplicate) {
+                    // Already stored
+                }
+            }
+        }
+        scraperMetrics.dbInsert(countBySource(toInsert), System.nanoTime() - start);
+        // Rows skipped by ON CONFLICT exist too, so everything attempted is now "seen"
+        toInsert.forEach(seenJobIndex::record);
+        saved.forEach(clusterIndex::added);
+        searchIndex.addAll(saved);
+        if (!saved.isEmpty() || !links.isEmpty()) {
+            feedCache.changed();
+        }
+        return saved;
+    }
+
+    /**
+     * Jobs another replica saved (see {@link JobBroadcaster}), so this replica's dedup, clustering
+     * and search indexes know them too. They are already stored and broadcast.
+     */
+    public void savedElsewhere(List<Job> jobs) {
+        jobs.forEach(seenJobIndex::record);
+        jobs.forEach(clusterIndex::added);
+        searchIndex.addAll(jobs);
+    }
+
+    // Job keys of links stored here, comma separated, split only when they don't fit in one payload
+    private void announceLinks(Collection<Job> linked) {
+        List<String> keys = new ArrayList<>(linked.size());
+        for (Job job : linked) {
+            keys.add(String.valueOf(job.getJobKey()));
+        }
+        int perEvent = ClusterEvents.MAX_PAYLOAD / 21; // a long is at most 20 chars plus a comma
+        for (int from = 0; from < keys.size(); from += perEvent) {
+            clusterEvents.publish(ClusterEvents.LINKS,
+                    String.join(",", keys.subList(from, Math.min(keys.size(), from + perEvent))));
+        }
+    }
+
+    // Links another replica stored, so their keys count as seen here and their sources as listed
+    private void linkedElsewhere(String node, String payload) {
+        List<Long> keys = new ArrayList<>();
+        for (String key : payload.split(",")) {
+            if (!key.isEmpty()) {
+                keys.add(Long.parseLong(key));
+            }
+        }
+        if (keys.isEmpty()) {
+            return;
+        }
+        StringBuilder sql = new StringBuilder("SELECT job_key, content_key, job_id, source FROM job_links WHERE job_key IN (");
+        appendPlaceholders(sql, "?", keys.size());
+        sql.append(")");
+        jdbcTemplate.query(sql.toString(), (RowCallbackHandler) rs -> {
+            seenJobIndex.record(rs.getLong(1), rs.getLong(2));
+            clusterIndex.linked(rs.getLong(3), rs.getString(4));
+        }, keys.toArray());
+    }
+
+    private static Map<String, Integer> countBySource(Collection<Job> jobs) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (Job job : jobs) {
+            counts.merge(job.getSource(), 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    private void removeExisting(Map<Long, Job> candidates) {
+        // Equality lookups on the BIGINT key indexes of jobs and job_links
+        StringBuilder sql = new StringBuilder();
+        List<Object> params = new ArrayList<>();
+        for (String table : new String[] { "jobs", "job_links" }) {
+            if (sql.length() > 0) {
+                sql.append(" UNION ALL ");
+            }
+            sql.append("SELECT job_key, content_key FROM ").append(table).append(" WHERE job_key IN (");
+            appendPlaceholders(sql, "?", candidates.size());
+            sql.append(") OR content_key IN (");
+            appendPlaceholders(sql, "?", candidates.size());
+            sql.append(")");
+
+            params.addAll(candidates.keySet());
+            for (Job job : candidates.values()) {
+                params.add(job.getContentKey());
+            }
+        }
+
+        Set<Long> existingKeys = new HashSet<>();
+        Set<Long> existingContent = new HashSet<>();
+        jdbcTemplate.query(sql.toString(), rs -> {
+            existingKeys.add(rs.getLong(1));
+            existingContent.add(rs.getLong(2));
+        }, params.toArray());
+
+        candidates.values().removeIf(job -> existingKeys.contains(job.getJobKey())
+                || existingContent.contains(job.getContentKey()));
+    }
+
+    private List<Job> insert(List<Job> jobs) {
+        LocalDateTime now = LocalDateTime.now();
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX);
+        appendPlaceholders(sql, ROW_PLACEHOLDERS, jobs.size());
+        if (isPostgres()) {
+            sql.append(" ON CONFLICT DO NOTHING");
+        }
+
+        return jdbcTemplate.execute((ConnectionCallback<List<Job>>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(sql.toString(), new String[] { "id", "job_key" })) {
+                int i = 1;
+                for (Job job : jobs) {
+                    // Same defaults Job.onCreate() applies on the JPA path
+                    job.setDiscoveredAt(now);
+                    if (job.getPostedAt() == null) {
+                        job.setPostedAt(now);
+                    }
+                    if (job.getStatus() == null) {
+                        job.setStatus("NEW");
+                    }
+                    job.setExperience(ExperienceLevel.of(job.getTitle(), job.getDescription()));
+                    ps.setString(i++, job.getTitle());
+                    ps.setString(i++, job.getCompany());
+                    ps.setString(i++, job.getLocation());
+                    ps.setString(i++, job.getDescription());
+                    ps.setString(i++, job.getUrl());
+                    ps.setString(i++, job.getSource());
+                    ps.setString(i++, job.getStatus());
+                    ps.setString(i++, job.getExperience());
+                    ps.setTimestamp(i++, Timestamp.valueOf(job.getPostedAt()));
+                    ps.setTimestamp(i++, Timestamp.valueOf(job.getDiscoveredAt()));
+                    ps.setLong(i++, job.getJobKey());
+                    ps.setLong(i++, job.getContentKey());
+                }
+                ps.executeUpdate();
+
+                // Map generated ids back by job key; rows skipped by ON CONFLICT return no key
+                Map<Long, Long> ids = new HashMap<>();
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    while (keys.next()) {
+                        ids.put(keys.getLong(2), keys.getLong(1));
+                    }
+                }
+                List<Job> saved = new ArrayList<>();
+                for (Job job : jobs) {
+                    Long id = ids.get(job.getJobKey());
+                    if (id != null) {
+                        job.setId(id);
+                        saved.add(job);
+                    }
+                }
+                return saved;
+            }
+        });
+    }
+
+    private void insertLinks(Map<Job, Long> links) {
+        StringBuilder sql = new StringBuilder(LINK_INSERT_PREFIX);
+        appendPlaceholders(sql, LINK_PLACEHOLDERS, links.size());
+        if (isPostgres()) {
+            sql.append(" ON CONFLICT DO NOTHING");
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object> params = new ArrayList<>();
+        for (Map.Entry<Job, Long> link : links.entrySet()) {
+            Job job = link.getKey();
+            params.add(link.getValue());
+            params.add(job.getSource());
+            params.add(job.getUrl());
+            params.add(job.getJobKey());
+            params.add(job.getContentKey());
+            params.add(now);
+        }
+        jdbcTemplate.update(sql.toString(), params.toArray());
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            postgres = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> connection.getMetaData()
+                    .getDatabaseProductName().toLowerCase().contains("postgres"));
+        }
+        return postgres;
+    }
+
+    private static void appendPlaceholders(StringBuilder sql, String placeholder, int count) {
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(placeholder);
+        }
+    }
+}
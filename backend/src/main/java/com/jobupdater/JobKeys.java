@@ -0,0 +1,197 @@
+package com.jobupdater;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Canonical job URLs and the fixed-width keys the jobs table is deduplicated on.
+ *
+ * The canonical URL keeps what identifies the job (Indeed's jk, Greenhouse's gh_jid,
+ * Glassdoor's jl) and drops everything else: tracking parameters, fragments, trailing slashes,
+ * Indeed's and LinkedIn's country / mobile host variants and LinkedIn's title slugs. It is still
+ * a working link. Glassdoor's country domains (glassdoor.com, glassdoor.co.in, ...) are kept
+ * as they are, so the same listing seen on two of them gets two job keys.
+ *
+ * V3__job_keys has its own frozen copy of these rules for the rows it rewrote; changing them
+ * here does not change what that migration did.
+ *
+ * The job key is a 64-bit hash of the source's own job id when the URL carries one, and
+ * otherwise of the canonical URL together with the normalized title and company (some sources
+ * link every job to the same apply page). The content key hashes just title and company and
+ * catches the same posting under a different URL.
+ */
+public final class JobKeys {
+
+    // Host suffix -> where the source's own job id sits in a canonical URL
+    private static final Map<String, Pattern> NATIVE_IDS = new LinkedHashMap<>();
+
+    static {
+        NATIVE_IDS.put("linkedin.com", Pattern.compile("/jobs/view/(\\d+)"));
+        NATIVE_IDS.put("indeed.com", Pattern.compile("[?&]jk=(\\w+)"));
+        NATIVE_IDS.put("greenhouse.io", Pattern.compile("/jobs/(\\d+)"));
+        NATIVE_IDS.put("lever.co", Pattern.compile("^/[^/]+/([0-9a-f]{8}-[0-9a-f-]{27})"));
+        NATIVE_IDS.put("naukri.com", Pattern.compile("/job-listings-[^?]*-(\\d+)$"));
+        NATIVE_IDS.put("glassdoor.co.in", Pattern.compile("[?&]jl=(\\d+)"));
+        NATIVE_IDS.put("glassdoor.com", Pattern.compile("[?&]jl=(\\d+)"));
+        NATIVE_IDS.put("instahyre.com", Pattern.compile("/job-(\\d+)"));
+        NATIVE_IDS.put("wellfound.com", Pattern.compile("/jobs/(\\d+)"));
+    }
+
+    private static final Pattern GH_JID = Pattern.compile("[?&]gh_jid=(\\d+)");
+    // A Greenhouse board's own job page, as opposed to a careers page embedding the board
+    private static final Pattern GREENHOUSE_JOB_PATH = Pattern.compile(".*/jobs/\\d+");
+    private static final Pattern LINKEDIN_JOB = Pattern.compile("^/jobs/view/(?:[^/]*-)?(\\d+)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private JobKeys() {
+    }
+
+    public static String canonicalUrl(String url) {
+        String trimmed = url.trim();
+        URI uri;
+        try {
+            uri = new URI(trimmed);
+        } catch (URISyntaxException e) {
+            return stripQuery(trimmed);
+        }
+        if (uri.getHost() == null) {
+            return stripQuery(trimmed);
+        }
+
+        String host = uri.getHost().toLowerCase(Locale.ROOT);
+        String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+        if (path.length() > 1 && path.endsWith("/")) {
+            path = path.substring(0, path.length() - 1);
+        }
+        String scheme = uri.getScheme() == null ? "https" : uri.getScheme().toLowerCase(Locale.ROOT);
+        boolean defaultPort = uri.getPort() < 0 || (scheme.equals("http") && uri.getPort() == 80)
+                || (scheme.equals("https") && uri.getPort() == 443);
+        String port = defaultPort ? "" : ":" + uri.getPort();
+
+        // Greenhouse boards embedded on a company's own careers page carry the job as gh_jid
+        String ghJid = GREENHOUSE_JOB_PATH.matcher(path).matches() ? null : queryParam(uri, "gh_jid");
+        if (host.equals("indeed.com") || host.endsWith(".indeed.com")) {
+            String jk = queryParam(uri, "jk");
+            if (jk == null) {
+                jk = queryParam(uri, "vjk");
+            }
+            if (jk != null) {
+                return "https://www.indeed.com/viewjob?jk=" + jk;
+            }
+            host = "www.indeed.com";
+        } else if (host.equals("linkedin.com") || host.endsWith(".linkedin.com")) {
+            Matcher job = LINKEDIN_JOB.matcher(path);
+            if (job.find()) {
+                return "https://www.linkedin.com/jobs/view/" + job.group(1);
+            }
+            host = "www.linkedin.com";
+        } else if (ghJid != null) {
+            return scheme + "://" + host + port + path + "?gh_jid=" + ghJid;
+        } else if (host.contains("glassdoor.")) {
+            String jl = queryParam(uri, "jl");
+            if (jl != null) {
+                return scheme + "://" + host + port + path + "?jl=" + jl;
+            }
+        }
+        return scheme + "://" + host + port + path;
+    }
+
+    // The source's own id for the job behind a canonical URL, e.g. "indeed.com:1a2b3c", or null
+    public static String nativeId(String canonicalUrl) {
+        URI uri;
+        try {
+            uri = new URI(canonicalUrl);
+        } catch (URISyntaxException e) {
+            return null;
+        }
+        String host = uri.getHost() == null ? "" : uri.getHost();
+        String pathAndQuery = (uri.getRawPath() == null ? "" : uri.getRawPath())
+                + (uri.getRawQuery() == null ? "" : "?" + uri.getRawQuery());
+        Matcher embedded = GH_JID.matcher(pathAndQuery);
+        if (embedded.find()) {
+            return "greenhouse.io:" + embedded.group(1);
+        }
+        for (Map.Entry<String, Pattern> source : NATIVE_IDS.entrySet()) {
+            if (host.equals(source.getKey()) || host.endsWith("." + source.getKey())) {
+                Matcher id = source.getValue().matcher(pathAndQuery);
+                return id.find() ? source.getKey() + ":" + id.group(1) : null;
+            }
+        }
+        return null;
+    }
+
+    // Sets jobKey and contentKey; expects the URL to be canonical already
+    public static void assign(Job job) {
+        job.setJobKey(jobKey(job));
+        job.setContentKey(contentKey(job.getTitle(), job.getCompany()));
+    }
+
+    // Expects the URL to be canonical already
+    public static long jobKey(Job job) {
+        String nativeId = nativeId(job.getUrl());
+        if (nativeId != null) {
+            return hash64("id:" + nativeId);
+        }
+        return hash64("url:" + job.getUrl() + "\u0000" + normalize(job.getTitle()) + "\u0000" + normalize(job.getCompany()));
+    }
+
+    public static long contentKey(String title, String company) {
+        return hash64(normalize(title) + "\u0000" + normalize(company));
+    }
+
+    // FNV-1a over UTF-8 bytes, finished with a murmur3 fmix64
+    public static long hash64(String text) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : text.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        return mix64(h);
+    }
+
+    public static long mix64(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb93fe1a85a2dL;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : WHITESPACE.matcher(text.trim().toLowerCase(Locale.ROOT)).replaceAll(" ");
+    }
+
+    private static String queryParam(URI uri, String name) {
+        String query = uri.getRawQuery();
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0 && pair.substring(0, eq).equals(name) && eq < pair.length() - 1) {
+                return pair.substring(eq + 1);
+            }
+        }
+        return null;
+    }
+
+    private static String stripQuery(String url) {
+        int end = url.length();
+        int query = url.indexOf('?');
+        int fragment = url.indexOf('#');
+        if (query >= 0) {
+            end = query;
+        }
+        if (fragment >= 0 && fragment < end) {
+            end = fragment;
+        }
+        return url.substring(0, end);
+    }
+}
@@ -0,0 +1,39 @@
+package com.jobupdater;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import javax.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+// Another source's listing of a stored job, written by JobIngestor when JobClusterIndex matches it
+@Entity
+@Data
+@Table(name = "job_links", indexes = {
+        // Created by the Flyway migrations; listed here so the mapping documents them
+        @Index(name = "ux_job_links_job_key", columnList = "jobKey", unique = true),
+        @Index(name = "ix_job_links_content_key", columnList = "contentKey"),
+        @Index(name = "ix_job_links_job_id", columnList = "job_id")
+})
+public class JobLink {
+    @JsonIgnore
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @JsonIgnore
+    @Column(name = "job_id")
+    private Long jobId;
+
+    private String source;
+
+    @Column(length = 2048)
+    private String url;
+
+    @JsonIgnore
+    private Long jobKey;
+
+    @JsonIgnore
+    private Long contentKey;
+
+    private LocalDateTime discoveredAt;
+}
@@ -0,0 +1,14 @@
+package com.jobupdater;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One page of the job feed. nextCursor is null on the last page.
+ */
+@Data
+public class JobPage<T> {
+    private final List<T> items;
+    private final String nextCursor;
+}
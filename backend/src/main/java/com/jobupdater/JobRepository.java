@@ -1,11 +1,17 @@
 package com.jobupdater;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface JobRepository extends JpaRepository<Job, Long> {
-    boolean existsByUrl(String url);
+    // Legacy rows without a status are reported as NEW
+    @Query("select coalesce(j.status, 'NEW'), count(j) from Job j group by coalesce(j.status, 'NEW')")
+    List<Object[]> countByStatus();
 
-    boolean existsByTitleAndCompany(String title, String company);
+    @Query("select distinct j.source from Job j where j.source is not null order by j.source")
+    List<String> findDistinctSources();
 }
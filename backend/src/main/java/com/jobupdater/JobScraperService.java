@@ -1,30 +1,27 @@
 package com.jobupdater;
 
 import com.jobupdater.scraper.*;
-import com.jobupdater.JobRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
-import org.springframework.scheduling.annotation.Scheduled;
-import org.springframework.boot.context.event.ApplicationReadyEvent;
-import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.BooleanSupplier;
 
 @Service
 public class JobScraperService {
 
-    private final JobRepository jobRepository;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final IngestQueue ingestQueue;
+    private final SeenJobIndex seenJobIndex;
+    private final ScrapeProgress scrapeProgress;
+    private final ScraperMetrics scraperMetrics;
     private final List<ScraperStrategy> scrapers;
-    private final java.util.concurrent.ExecutorService scraperExecutor = java.util.concurrent.Executors
-            .newFixedThreadPool(1); // Reduced to 1 to save memory on free tier
-    private int currentScraperIndex = 0;
 
     @Autowired
-    public JobScraperService(JobRepository jobRepository,
-            SimpMessagingTemplate messagingTemplate,
+    public JobScraperService(IngestQueue ingestQueue,
+            SeenJobIndex seenJobIndex,
+            ScrapeProgress scrapeProgress,
+            ScraperMetrics scraperMetrics,
             LinkedInScraper linkedInScraper,
             IndeedScraper indeedScraper,
             NaukriScraper naukriScraper,
@@ -33,8 +30,10 @@ public class JobScraperService {
             GreenhouseScraper greenhouseScraper,
             LeverScraper leverScraper,
             WellfoundScraper wellfoundScraper) {
-        this.jobRepository = jobRepository;
-        this.messagingTemplate = messagingTemplate;
+        this.ingestQueue = ingestQueue;
+        this.seenJobIndex = seenJobIndex;
+        this.scrapeProgress = scrapeProgress;
+        this.scraperMetrics = scraperMetrics;
         this.scrapers = new ArrayList<>();
         this.scrapers.add(linkedInScraper);
         this.scrapers.add(indeedScraper);
@@ -46,79 +45,76 @@ public class JobScraperService {
         this.scrapers.add(wellfoundScraper);
     }
 
-    @EventListener(ApplicationReadyEvent.class)
-    public void init() {
-        System.out.println("Backend is ready! Starting initial scraping cycle...");
-        scrapeJobs();
+    public List<ScraperStrategy> getScrapers() {
+        return scrapers;
     }
 
-    // Scrape every 15 minutes (900000ms) to prevent ban and server crash
-    @Scheduled(fixedRate = 900000)
-    public void scrapeJobs() {
-        System.out.println("Starting advanced scraping cycle...");
-        for (ScraperStrategy scraper : scrapers) {
-            scraperExecutor.submit(() -> {
-                System.out.println("Running scraper: " + scraper.getSourceName());
-                try {
-                    List<Job> jobs = scraper.scrape();
-                    for (Job job : jobs) {
-                        if (isValidJob(job)) {
-                            // Normalize URL
-                            if (job.getUrl() != null && job.getUrl().contains("?")) {
-                                job.setUrl(job.getUrl().split("\\?")[0]);
-                            }
-
-                            boolean existsByUrl = jobRepository.existsByUrl(job.getUrl());
-                            boolean existsByContent = jobRepository.existsByTitleAndCompany(job.getTitle(),
-                                    job.getCompany());
-
-                            if (!existsByUrl && !existsByContent) {
-                                jobRepository.save(job);
-                            }
-                        }
-                    }
-                    if (!jobs.isEmpty()) {
-                        System.out.println("Saved " + jobs.size() + " jobs from " + scraper.getSourceName());
-                        // Broadcast update
-                        messagingTemplate.convertAndSend("/topic/jobs", jobs);
-                    }
-                } catch (Exception e) {
-                    System.err.println("Error running scraper " + scraper.getSourceName() + ": " + e.getMessage());
-                }
-            });
+    // Runs one source end to end. Scheduling and concurrency are handled by ScrapeScheduler.
+    // Jobs are validated as the scraper parses them and handed to the IngestQueue, which writes
+    // them in batches while the browser moves on; the run ends once its last batch is written.
+    // Once stopped says so (the source's lease went to another replica) the scheduler has also
+    // interrupted the run, and jobs parsed after that point are not queued.
+    public void runScraper(ScraperStrategy scraper, BooleanSupplier stopped) {
+        System.out.println("Running scraper: " + scraper.getSourceName());
+        scrapeProgress.started(scraper.getSourceName());
+        io.micrometer.core.instrument.Timer.Sample sample = scraperMetrics.start();
+        ScrapedJobs scraped = new ScrapedJobs(scraper.getSourceName(), stopped);
+        String error = null;
+        int saved = 0;
+        try {
+            scraper.scrape(scraped::add);
+        } catch (Exception e) {
+            error = e.getMessage();
+            System.err.println("Error running scraper " + scraper.getSourceName() + ": " + e.getMessage());
         }
+        if (stopped.getAsBoolean()) {
+            error = "Stopped: another replica took over the source";
+            System.err.println("Stopped scraper " + scraper.getSourceName() + ", another replica took over the source");
+            // Clear the interrupt so the jobs already queued are still waited for below
+            Thread.interrupted();
+        }
+        boolean allSaved = false;
+        try {
+            saved = scraped.run.finish();
+            allSaved = !stopped.getAsBoolean() && scraped.run.lost() == 0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            // Lets HTTP scrapers remember unchanged boards only once their jobs are stored
+            scraper.afterSave(allSaved);
+            scrapeProgress.finished(error);
+            scraperMetrics.runFinished(sample, scraper.getSourceName(), error != null);
+        }
+        System.out.println("Saved " + saved + " new of " + scraped.count + " jobs from "
+                + scraper.getSourceName() + " (dedup " + seenJobIndex.getStats() + ")");
     }
 
-    // Live Heartbeat every 1 second to satisfy "real-time" requirement
-    @Scheduled(fixedRate = 1000)
-    public void sendStatusUpdate() {
-        if (scrapers.isEmpty())
-            return;
-        String source = scrapers.get(currentScraperIndex).getSourceName();
-        messagingTemplate.convertAndSend("/topic/status", "Scanning " + source + "...");
-        currentScraperIndex = (currentScraperIndex + 1) % scrapers.size();
-    }
-
-    private boolean isValidJob(Job job) {
-        if (job.getTitle() == null || job.getUrl() == null || job.getCompany() == null)
-            return false;
-
-        String title = job.getTitle().trim();
-        String company = job.getCompany().trim();
-
-        if (title.isEmpty() || title.equals("Unknown Title"))
-            return false;
-
-        // Reject masked content (often from LinkedIn/Naukri premium or rate limit)
-        if (title.contains("*******") || company.contains("*******"))
-            return false;
-
-        String text = (title + " " + job.getDescription() + " " + company).toLowerCase();
+    // Validates and canonicalizes on the scrape thread, then queues the job for saving
+    private class ScrapedJobs {
+        private final String source;
+        private final BooleanSupplier stopped;
+        private final IngestQueue.Run run;
+        private int count;
+
+        ScrapedJobs(String source, BooleanSupplier stopped) {
+            this.source = source;
+            this.stopped = stopped;
+            this.run = ingestQueue.startRun(source);
+        }
 
-        // Filter out obvious ads or promoted content
-        if (text.contains("promoted") || text.contains("sponsored") || text.contains("advertisement")) {
-            return false;
+        void add(Job job) {
+            if (stopped.getAsBoolean()) {
+                return;
+            }
+            count++;
+            scrapeProgress.cardsParsed(1);
+            boolean valid = JobValidator.isValid(job);
+            scraperMetrics.validated(source, valid);
+            if (!valid) {
+                return;
+            }
+            job.setUrl(JobKeys.canonicalUrl(job.getUrl()));
+            run.add(job);
         }
-        return true;
     }
 }
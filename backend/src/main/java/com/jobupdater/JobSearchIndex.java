@@ -0,0 +1,231 @@
+package com.jobupdater;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Embedded full-text index over title, company, location, description and source.
+ *
+ * Terms live in a sorted map so every query token also matches as a prefix ("back" finds
+ * "backend"). A document must match every query token; its score is the sum, per token, of
+ * idf times the field-boosted term frequency, with exact term matches weighted above prefix
+ * expansions. Postings are packed arrays of (job id, weight), so the index stays a few bytes
+ * per term occurrence.
+ *
+ * Built from the jobs table on first search and kept current by {@link #addAll} as the
+ * ingest path saves jobs. Jobs saved before the first search are picked up by that build.
+ */
+@Component
+public class JobSearchIndex {
+
+    private static final float TITLE_BOOST = 3.0f;
+    private static final float COMPANY_BOOST = 2.0f;
+    private static final float LOCATION_BOOST = 1.0f;
+    private static final float SOURCE_BOOST = 1.0f;
+    private static final float DESCRIPTION_BOOST = 0.5f;
+
+    private static final float PREFIX_PENALTY = 0.7f;
+    private static final int MAX_PREFIX_EXPANSIONS = 200;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, Postings> postings = new TreeMap<>();
+    // Ids already in the index; a job saved while the build runs can reach both the build and addAll
+    private final Set<Long> indexed = new HashSet<>();
+    private int documentCount;
+    private volatile boolean warm = false;
+
+    @Autowired
+    public JobSearchIndex(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Returns the ids of all matching jobs, best match first.
+     */
+    public List<Long> search(String query) {
+        ensureWarm();
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Long, float[]> hits = new HashMap<>(); // id -> {score, tokens matched}
+        lock.readLock().lock();
+        try {
+            for (int t = 0; t < tokens.size(); t++) {
+                String token = tokens.get(t);
+                // Best contribution of this token per document, so "engineer" + "engineering" don't stack
+                Map<Long, Float> tokenScores = new HashMap<>();
+                int expansions = 0;
+                for (Map.Entry<String, Postings> entry : postings.subMap(token, true, token + Character.MAX_VALUE, false).entrySet()) {
+                    if (expansions++ >= MAX_PREFIX_EXPANSIONS) {
+                        break;
+                    }
+                    Postings p = entry.getValue();
+                    float idf = (float) Math.log(1 + (documentCount - p.size + 0.5) / (p.size + 0.5));
+                    float factor = entry.getKey().equals(token) ? 1.0f : PREFIX_PENALTY;
+                    for (int i = 0; i < p.size; i++) {
+                        float score = idf * factor * p.weights[i];
+                        tokenScores.merge(p.ids[i], score, Math::max);
+                    }
+                }
+                final int tokenIndex = t;
+                tokenScores.forEach((id, score) -> {
+                    float[] hit = hits.get(id);
+                    if (hit == null) {
+                        if (tokenIndex == 0) {
+                            hits.put(id, new float[] { score, 1 });
+                        }
+                    } else if (hit[1] == tokenIndex) {
+                        hit[0] += score;
+                        hit[1]++;
+                    }
+                });
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        int required = tokens.size();
+        List<Map.Entry<Long, float[]>> matches = new ArrayList<>();
+        for (Map.Entry<Long, float[]> hit : hits.entrySet()) {
+            if (hit.getValue()[1] == required) {
+                matches.add(hit);
+            }
+        }
+        // Higher score first, newer job (higher id) breaks ties
+        matches.sort((a, b) -> {
+            int byScore = Float.compare(b.getValue()[0], a.getValue()[0]);
+            return byScore != 0 ? byScore : Long.compare(b.getKey(), a.getKey());
+        });
+        List<Long> ids = new ArrayList<>(matches.size());
+        for (Map.Entry<Long, float[]> match : matches) {
+            ids.add(match.getKey());
+        }
+        return ids;
+    }
+
+    // Adds freshly saved jobs. Before the first build this is a no-op; the build reads them from the table.
+    public void addAll(Collection<Job> jobs) {
+        lock.writeLock().lock();
+        try {
+            // Checked under the lock: a build in progress holds it, so these jobs wait for it and are
+            // added after it even if its SELECT started before they were inserted
+            if (!warm) {
+                return;
+            }
+            for (Job job : jobs) {
+                add(job.getId(), job.getTitle(), job.getCompany(), job.getLocation(), job.getDescription(),
+                        job.getSource());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int getDocumentCount() {
+        return documentCount;
+    }
+
+    private void ensureWarm() {
+        if (warm) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (warm) {
+                return;
+            }
+            long start = System.currentTimeMillis();
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(
+                        "SELECT id, title, company, location, description, source FROM jobs");
+                ps.setFetchSize(1000);
+                return ps;
+            }, (RowCallbackHandler) rs -> add(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                    rs.getString(5), rs.getString(6)));
+            warm = true;
+            System.out.println("Search index built with " + documentCount + " jobs and " + postings.size()
+                    + " terms in " + (System.currentTimeMillis() - start) + " ms");
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Caller holds the write lock
+    private void add(Long id, String title, String company, String location, String description, String source) {
+        if (id == null || !indexed.add(id)) {
+            return;
+        }
+        documentCount++;
+
+        Map<String, Float> weights = new LinkedHashMap<>();
+        addField(weights, title, TITLE_BOOST);
+        addField(weights, company, COMPANY_BOOST);
+        addField(weights, location, LOCATION_BOOST);
+        addField(weights, source, SOURCE_BOOST);
+        addField(weights, description, DESCRIPTION_BOOST);
+        weights.forEach((term, weight) -> postings.computeIfAbsent(term, t -> new Postings()).add(id, weight));
+    }
+
+    private static void addField(Map<String, Float> weights, String text, float boost) {
+        for (String token : tokenize(text)) {
+            weights.merge(token, boost, Float::sum);
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                current.append(Character.toLowerCase(c));
+            } else if (current.length() > 0) {
+                tokens.add(current.toString());
+                current.setLength(0);
+            }
+        }
+        if (current.length() > 0) {
+            tokens.add(current.toString());
+        }
+        return tokens;
+    }
+
+    private static class Postings {
+        long[] ids = new long[4];
+        float[] weights = new float[4];
+        int size;
+
+        void add(long id, float weight) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            ids[size] = id;
+            weights[size] = weight;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.jobupdater;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A job as the feed lists it: what a card shows, without the description. Built straight
+ * from the query by {@link JobFeedService}, so listing a page never loads or tracks Job
+ * entities. experience is the level stored at ingest (see {@link ExperienceLevel}); the
+ * description itself is at GET /api/jobs/{id}.
+ */
+@Data
+public class JobSummary {
+    private final Long id;
+    private final String title;
+    private final String company;
+    private final String location;
+    private final String url;
+    private final String source;
+    private final String status;
+    private final LocalDateTime postedAt;
+    private final String experience;
+
+    // The same opening on other sources
+    private List<JobLink> links = new ArrayList<>();
+}
@@ -0,0 +1,17 @@
+package com.jobupdater;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One message on /topic/jobs: the jobs saved since the previous message, stamped with a
+ * sequence number that increases by one per message. Sequence numbers are per replica, so the
+ * message also names the replica that sent it.
+ */
+@Data
+public class JobUpdate {
+    private final long seq;
+    private final String node;
+    private final List<Job> jobs;
+}
@@ -0,0 +1,34 @@
+package com.jobupdater;
+
+/**
+ * Checks applied to every scraped job before it is ingested.
+ */
+public final class JobValidator {
+
+    private JobValidator() {
+    }
+
+    public static boolean isValid(Job job) {
+        if (job.getTitle() == null || job.getUrl() == null || job.getCompany() == null)
+            return false;
+
+        String title = job.getTitle().trim();
+        String company = job.getCompany().trim();
+
+        if (title.isEmpty() || title.equals("Unknown Title"))
+            return false;
+
+        // Reject masked content (often from LinkedIn/Naukri premium or rate limit)
+        if (title.contains("*******") || company.contains("*******"))
+            return false;
+
+        String text = (title + " " + job.getDescription() + " " + company).toLowerCase();
+
+        // Filter out obvious ads or promoted content
+        if (text.contains("promoted") || text.contains("sponsored") || text.contains("advertisement")) {
+            return false;
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,93 @@
+package com.jobupdater;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
+
+/**
+ * In-process {@link ClusterEvents}: reaches every application context in the same JVM and
+ * nothing else. On its own replica this is a no-op, which is right for a single instance, and
+ * several contexts started in one test JVM behave like a cluster.
+ */
+@Component
+@ConditionalOnProperty(name = "scraper.broadcast.fanout", havingValue = "local", matchIfMissing = true)
+public class LocalClusterEvents implements ClusterEvents {
+
+    private static final Set<LocalClusterEvents> NODES = new CopyOnWriteArraySet<>();
+
+    private final String nodeId;
+    private final MeterRegistry registry;
+    private final Map<String, BiConsumer<String, String>> handlers = new ConcurrentHashMap<>();
+    // Delivery runs off the sender's thread, as it would coming from the database
+    private final ExecutorService delivery = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "cluster-events");
+        t.setDaemon(true);
+        return t;
+    });
+
+    @Autowired
+    public LocalClusterEvents(ScraperProperties properties, MeterRegistry registry) {
+        this.nodeId = properties.getCluster().resolveNodeId();
+        this.registry = registry;
+        NODES.add(this);
+    }
+
+    @Override
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    // Delivery within the JVM never drops events
+    @Override
+    public long eventEpoch() {
+        return 0;
+    }
+
+    @Override
+    public void publish(String kind, String payload) {
+        counted(kind, "sent");
+        for (LocalClusterEvents node : NODES) {
+            if (node != this) {
+                node.delivery.submit(() -> node.deliver(nodeId, kind, payload));
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(String kind, BiConsumer<String, String> handler) {
+        handlers.put(kind, handler);
+    }
+
+    private void deliver(String sender, String kind, String payload) {
+        BiConsumer<String, String> handler = handlers.get(kind);
+        if (handler == null) {
+            return;
+        }
+        counted(kind, "received");
+        try {
+            handler.accept(sender, payload);
+        } catch (Exception e) {
+            System.err.println("Error handling " + kind + " event from " + sender + ": " + e.getMessage());
+        }
+    }
+
+    private void counted(String kind, String direction) {
+        registry.counter("scraper.cluster.events", "kind", kind, "direction", direction).increment();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        NODES.remove(this);
+        delivery.shutdownNow();
+    }
+}
@@ -0,0 +1,185 @@
+package com.jobupdater;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * {@link ClusterEvents} over Postgres LISTEN/NOTIFY on the shared database.
+ *
+ * Each event is one NOTIFY on the job_updater_events channel, carrying "node kind payload".
+ * A daemon thread keeps one connection LISTENing and hands incoming events to the subscribed
+ * handlers. That connection is opened with the datasource's URL and credentials outside the
+ * Hikari pool, since it is held for the life of the replica. If it breaks, the thread
+ * reconnects with backoff (1s doubling to 1 min), and events sent in between are missed.
+ * {@link #eventEpoch} tells consumers when that may have happened. Sending goes through the
+ * pool like any other short query.
+ */
+@Component
+@ConditionalOnProperty(name = "scraper.broadcast.fanout", havingValue = "postgres")
+public class PostgresClusterEvents implements ClusterEvents {
+
+    private static final String CHANNEL = "job_updater_events";
+    private static final long MIN_RECONNECT_MILLIS = 1000;
+    private static final long MAX_RECONNECT_MILLIS = 60000;
+
+    private final Connector connector;
+    private final long minReconnectMillis;
+    private final long maxReconnectMillis;
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry registry;
+    private final String nodeId;
+    private final Map<String, BiConsumer<String, String>> handlers = new ConcurrentHashMap<>();
+    private final Thread listener = new Thread(this::listen, "cluster-events");
+    private volatile boolean running = true;
+    private volatile long epoch = -1;
+    private long connections = 0;
+
+    @Autowired
+    public PostgresClusterEvents(DataSourceProperties dataSource, JdbcTemplate jdbcTemplate,
+            ScraperProperties properties, MeterRegistry registry) {
+        this(() -> DriverManager.getConnection(dataSource.determineUrl(), dataSource.determineUsername(),
+                dataSource.determinePassword()), MIN_RECONNECT_MILLIS, MAX_RECONNECT_MILLIS, jdbcTemplate, properties,
+                registry);
+    }
+
+    PostgresClusterEvents(Connector connector, long minReconnectMillis, long maxReconnectMillis,
+            JdbcTemplate jdbcTemplate, ScraperProperties properties, MeterRegistry registry) {
+        this.connector = connector;
+        this.minReconnectMillis = minReconnectMillis;
+        this.maxReconnectMillis = maxReconnectMillis;
+        this.jdbcTemplate = jdbcTemplate;
+        this.registry = registry;
+        this.nodeId = properties.getCluster().resolveNodeId();
+        listener.setDaemon(true);
+    }
+
+    @PostConstruct
+    public void start() {
+        listener.start();
+    }
+
+    @Override
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public long eventEpoch() {
+        return epoch;
+    }
+
+    @Override
+    public void publish(String kind, String payload) {
+        String message = nodeId + " " + kind + " " + payload;
+        if (message.getBytes(StandardCharsets.UTF_8).length > MAX_PAYLOAD + 200) {
+            System.err.println("Dropping " + kind + " event of " + message.length() + " chars, too large for NOTIFY");
+            return;
+        }
+        try {
+            jdbcTemplate.query("SELECT pg_notify(?, ?)", (RowCallbackHandler) rs -> { }, CHANNEL, message);
+            counted(kind, "sent");
+        } catch (Exception e) {
+            System.err.println("Could not send " + kind + " event to other replicas: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void subscribe(String kind, BiConsumer<String, String> handler) {
+        handlers.put(kind, handler);
+    }
+
+    private void listen() {
+        long backoff = minReconnectMillis;
+        while (running) {
+            try (Connection connection = connector.connect()) {
+                PGConnection pg;
+                try {
+                    pg = connection.unwrap(PGConnection.class);
+                } catch (SQLException e) {
+                    System.err.println("scraper.broadcast.fanout=postgres needs a Postgres datasource; "
+                            + "live events stay on this replica");
+                    return;
+                }
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                epoch = ++connections;
+                backoff = minReconnectMillis;
+                System.out.println("Listening for events from other replicas as " + nodeId);
+                while (running) {
+                    PGNotification[] notifications = pg.getNotifications(1000);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            dispatch(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (Exception e) {
+                epoch = -1;
+                if (!running) {
+                    return;
+                }
+                System.err.println("Lost the cluster event connection, reconnecting in " + backoff + " ms: "
+                        + e.getMessage());
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+                backoff = Math.min(backoff * 2, maxReconnectMillis);
+            }
+        }
+    }
+
+    private void dispatch(String message) {
+        String[] parts = message.split(" ", 3);
+        if (parts.length < 3 || parts[0].equals(nodeId)) {
+            return; // our own event, every listener gets those too
+        }
+        BiConsumer<String, String> handler = handlers.get(parts[1]);
+        if (handler == null) {
+            return;
+        }
+        counted(parts[1], "received");
+        try {
+            handler.accept(parts[0], parts[2]);
+        } catch (Exception e) {
+            System.err.println("Error handling " + parts[1] + " event from " + parts[0] + ": " + e.getMessage());
+        }
+    }
+
+    private void counted(String kind, String direction) {
+        registry.counter("scraper.cluster.events", "kind", kind, "direction", direction).increment();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        listener.interrupt();
+    }
+
+    // Opens the listening connection
+    @FunctionalInterface
+    interface Connector {
+        Connection connect() throws SQLException;
+    }
+}
@@ -0,0 +1,168 @@
+package com.jobupdater;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-source scrape leases in the scrape_leases table, so several replicas can share one
+ * database without scraping the same source twice.
+ *
+ * Taking a lease is a single conditional UPDATE, which both Postgres and H2 apply atomically:
+ * it succeeds only if nobody holds the row (locked_until has passed) and the source is due
+ * (next_run_at has passed). The winner sets next_run_at one interval ahead, so the source runs
+ * once per interval no matter how many replicas poll for it. While the run lasts the lease is
+ * renewed every third of scraper.cluster.lease-ttl; if the replica dies, the lease simply
+ * expires and another replica picks the source up on its next poll. A replica that finds its
+ * lease taken over (say after a long GC pause) interrupts its own run of the source, so the two
+ * replicas don't go on scraping it side by side.
+ *
+ * Times come from the replicas' clocks, which are expected to agree to within a few seconds.
+ */
+@Component
+public class ScrapeLeases {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ScraperMetrics scraperMetrics;
+    private final Duration ttl;
+    private final String nodeId;
+    private final Set<String> knownRows = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "scrape-leases");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public ScrapeLeases(JdbcTemplate jdbcTemplate, ScraperProperties properties, ScraperMetrics scraperMetrics) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.scraperMetrics = scraperMetrics;
+        this.ttl = properties.getCluster().getLeaseTtl();
+        this.nodeId = properties.getCluster().resolveNodeId();
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Takes the lease on a source if it is free and due, or just free when force is set.
+     *
+     * @return the held lease, to be closed when the run ends, or null if another replica has it
+     *         or the source is not due yet
+     */
+    public Lease tryAcquire(String sourceKey, Duration interval, boolean force) {
+        ensureRow(sourceKey);
+        LocalDateTime now = LocalDateTime.now();
+        String sql = "UPDATE scrape_leases SET owner = ?, locked_until = ?, next_run_at = ? "
+                + "WHERE source_key = ? AND (locked_until IS NULL OR locked_until < ?)"
+                + (force ? "" : " AND (next_run_at IS NULL OR next_run_at <= ?)");
+        Object[] params = force
+                ? new Object[] { nodeId, Timestamp.valueOf(now.plus(ttl)), Timestamp.valueOf(now.plus(interval)),
+                        sourceKey, Timestamp.valueOf(now) }
+                : new Object[] { nodeId, Timestamp.valueOf(now.plus(ttl)), Timestamp.valueOf(now.plus(interval)),
+                        sourceKey, Timestamp.valueOf(now), Timestamp.valueOf(now) };
+        if (jdbcTemplate.update(sql, params) != 1) {
+            return null;
+        }
+        return new Lease(sourceKey);
+    }
+
+    private void ensureRow(String sourceKey) {
+        if (knownRows.contains(sourceKey)) {
+            return;
+        }
+        try {
+            jdbcTemplate.update("INSERT INTO scrape_leases (source_key) VALUES (?)", sourceKey);
+        } catch (DuplicateKeyException e) {
+            // Created by this or another replica earlier
+        }
+        knownRows.add(sourceKey);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeat.shutdownNow();
+    }
+
+    // A held lease; renews itself until closed
+    public class Lease implements AutoCloseable {
+        private final String sourceKey;
+        private final ScheduledFuture<?> renewal;
+        private volatile boolean lost;
+        // The thread running the leased scrape, interrupted if the lease is lost; null once closed
+        private Thread runner;
+
+        private Lease(String sourceKey) {
+            this.sourceKey = sourceKey;
+            long every = Math.max(1000, ttl.toMillis() / 3);
+            this.renewal = heartbeat.scheduleAtFixedRate(this::renew, every, every, TimeUnit.MILLISECONDS);
+        }
+
+        private void renew() {
+            try {
+                int updated = jdbcTemplate.update(
+                        "UPDATE scrape_leases SET locked_until = ? WHERE source_key = ? AND owner = ?",
+                        Timestamp.valueOf(LocalDateTime.now().plus(ttl)), sourceKey, nodeId);
+                if (updated == 0) {
+                    // Expired and taken over, e.g. after a long GC pause or a lost database connection
+                    System.err.println("Lost scrape lease on " + sourceKey + " to another replica");
+                    scraperMetrics.leaseLost(sourceKey);
+                    renewal.cancel(false);
+                    stopRunner();
+                }
+            } catch (Exception e) {
+                System.err.println("Could not renew scrape lease on " + sourceKey + ": " + e.getMessage());
+            }
+        }
+
+        // True once another replica has taken the source over; the run should stop
+        public boolean isLost() {
+            return lost;
+        }
+
+        // Registers the thread doing the run, which is interrupted if the lease is lost
+        public synchronized void runOn(Thread thread) {
+            runner = thread;
+            if (lost) {
+                thread.interrupt();
+            }
+        }
+
+        private synchronized void stopRunner() {
+            lost = true;
+            if (runner != null) {
+                runner.interrupt();
+            }
+        }
+
+        @Override
+        public void close() {
+            renewal.cancel(false);
+            synchronized (this) {
+                // No interrupt can reach the runner after this, whatever it goes on to do
+                runner = null;
+            }
+            try {
+                jdbcTemplate.update("UPDATE scrape_leases SET locked_until = NULL, last_finished_at = ? "
+                        + "WHERE source_key = ? AND owner = ?",
+                        Timestamp.valueOf(LocalDateTime.now()), sourceKey, nodeId);
+            } catch (Exception e) {
+                // The lease runs out on its own
+                System.err.println("Could not release scrape lease on " + sourceKey + ": " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package com.jobupdater;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Data;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Live state of every scrape run, published to /topic/status.
+ *
+ * JobScraperService reports start, parsed cards and finish/failure per run, IngestQueue the
+ * saved counts, and the scraper base classes report page loads. The run is bound to the
+ * scraping thread, so code deep in a scraper can report without knowing which source it
+ * belongs to.
+ *
+ * A snapshot is published only after something changed, and at most once per status
+ * interval, so an idle server sends nothing.
+ *
+ * Each replica also sends the state of its own runs to the others through
+ * {@link ClusterEvents}, at most once per status interval, and merges what it receives into
+ * its snapshot, so clients see every replica's scrapes. A run on a replica that has not
+ * reported for a lease TTL is shown as failed: that replica is gone and its lease will lapse.
+ */
+@Component
+public class ScrapeProgress {
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ClusterEvents clusterEvents;
+    private final ObjectMapper json = new ObjectMapper();
+    private final long minIntervalMillis;
+    private final long staleMillis;
+    private final ScheduledExecutorService publisher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "scrape-status");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final ThreadLocal<SourceStatus> current = new ThreadLocal<>();
+    private final Map<String, SourceStatus> sources = new LinkedHashMap<>();
+    // When each other replica last sent its status
+    private final Map<String, Long> lastHeard = new HashMap<>();
+    private boolean publishScheduled = false;
+    private boolean localChanged = false;
+    private long lastPublished = 0;
+
+    @Autowired
+    public ScrapeProgress(SimpMessagingTemplate messagingTemplate, ClusterEvents clusterEvents,
+            ScraperProperties properties) {
+        this.messagingTemplate = messagingTemplate;
+        this.clusterEvents = clusterEvents;
+        this.minIntervalMillis = properties.getBroadcast().getStatusInterval().toMillis();
+        this.staleMillis = properties.getCluster().getLeaseTtl().toMillis();
+        clusterEvents.subscribe(ClusterEvents.STATUS, this::received);
+    }
+
+    // Starts a run on the calling thread; must be paired with finished()
+    public void started(String source) {
+        SourceStatus status = new SourceStatus();
+        status.setSource(source);
+        status.setNode(clusterEvents.getNodeId());
+        status.setState(SourceStatus.RUNNING);
+        status.setStartedAt(System.currentTimeMillis());
+        current.set(status);
+        synchronized (this) {
+            sources.put(source, status);
+            localChanged = true;
+            changed();
+        }
+    }
+
+    // Source of the run on the calling thread, or null outside a run
+    public String currentSource() {
+        SourceStatus status = current.get();
+        return status == null ? null : status.getSource();
+    }
+
+    public void pageFetched() {
+        update(status -> status.setPagesFetched(status.getPagesFetched() + 1));
+    }
+
+    public void cardsParsed(int count) {
+        update(status -> status.setCardsParsed(status.getCardsParsed() + count));
+    }
+
+    // Called by the ingest writer, outside the scrape thread, so the run is found by source
+    public synchronized void saved(String source, int count) {
+        SourceStatus status = sources.get(source);
+        if (count > 0 && status != null && isLocal(status)) {
+            status.setSaved(status.getSaved() + count);
+            localChanged = true;
+            changed();
+        }
+    }
+
+    // error is null for a successful run
+    public void finished(String error) {
+        update(status -> {
+            status.setState(error == null ? SourceStatus.FINISHED : SourceStatus.FAILED);
+            status.setError(error);
+            status.setDurationMs(System.currentTimeMillis() - status.getStartedAt());
+        });
+        current.remove();
+    }
+
+    public synchronized Map<String, Object> snapshot() {
+        long now = System.currentTimeMillis();
+        List<SourceStatus> copies = new ArrayList<>();
+        List<String> running = new ArrayList<>();
+        for (SourceStatus status : sources.values()) {
+            SourceStatus copy = status.copy();
+            if (SourceStatus.RUNNING.equals(copy.getState()) && !isLocal(copy)
+                    && now - lastHeard.getOrDefault(copy.getNode(), 0L) > staleMillis) {
+                copy.setState(SourceStatus.FAILED);
+                copy.setError("Replica " + copy.getNode() + " stopped reporting");
+                copy.setDurationMs(lastHeard.getOrDefault(copy.getNode(), now) - copy.getStartedAt());
+            }
+            if (SourceStatus.RUNNING.equals(copy.getState())) {
+                copy.setDurationMs(now - copy.getStartedAt());
+                running.add(copy.getSource() + " (" + copy.getPagesFetched() + " pages, "
+                        + copy.getCardsParsed() + " jobs)");
+            }
+            copies.add(copy);
+        }
+
+        String message;
+        if (!running.isEmpty()) {
+            message = "Scanning " + String.join(", ", running) + "...";
+        } else if (copies.isEmpty()) {
+            message = "Waiting for the first scan...";
+        } else {
+            SourceStatus last = copies.get(0);
+            for (SourceStatus status : copies) {
+                if (status.getStartedAt() + status.getDurationMs() > last.getStartedAt() + last.getDurationMs()) {
+                    last = status;
+                }
+            }
+            message = "Idle. Last scan: " + last.getSource()
+                    + (SourceStatus.FAILED.equals(last.getState()) ? " failed"
+                            : " saved " + last.getSaved() + " new in " + (last.getDurationMs() / 1000) + "s");
+        }
+
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("message", message);
+        snapshot.put("sources", copies);
+        return snapshot;
+    }
+
+    private void update(Consumer<SourceStatus> change) {
+        SourceStatus status = current.get();
+        if (status == null) {
+            return; // not inside a scrape run
+        }
+        synchronized (this) {
+            change.accept(status);
+            localChanged = true;
+            changed();
+        }
+    }
+
+    // Caller holds the lock
+    private void changed() {
+        if (publishScheduled) {
+            return;
+        }
+        publishScheduled = true;
+        long delay = Math.max(0, lastPublished + minIntervalMillis - System.currentTimeMillis());
+        publisher.schedule(this::publish, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void publish() {
+        Map<String, Object> snapshot;
+        List<SourceStatus> own = new ArrayList<>();
+        boolean forward;
+        synchronized (this) {
+            publishScheduled = false;
+            lastPublished = System.currentTimeMillis();
+            snapshot = snapshot();
+            forward = localChanged;
+            localChanged = false;
+            if (forward) {
+                for (SourceStatus status : sources.values()) {
+                    if (isLocal(status)) {
+                        own.add(status.copy());
+                    }
+                }
+            }
+        }
+        try {
+            messagingTemplate.convertAndSend("/topic/status", snapshot);
+        } catch (Exception e) {
+            System.err.println("Error publishing scrape status: " + e.getMessage());
+        }
+        if (forward) {
+            forward(own);
+        }
+    }
+
+    // This replica's runs, to the other replicas; only ever changed ones, so idle replicas stay quiet
+    private void forward(List<SourceStatus> own) {
+        for (SourceStatus status : own) {
+            if (status.getError() != null && status.getError().length() > 200) {
+                status.setError(status.getError().substring(0, 200));
+            }
+        }
+        try {
+            clusterEvents.publish(ClusterEvents.STATUS, json.writeValueAsString(own));
+        } catch (JsonProcessingException e) {
+            System.err.println("Could not encode scrape status: " + e.getMessage());
+        }
+    }
+
+    // Another replica's runs as it last sent them
+    private void received(String node, String payload) {
+        List<SourceStatus> statuses;
+        try {
+            statuses = json.readValue(payload, new TypeReference<List<SourceStatus>>() { });
+        } catch (JsonProcessingException e) {
+            System.err.println("Ignoring unreadable scrape status from " + node + ": " + e.getMessage());
+            return;
+        }
+        synchronized (this) {
+            lastHeard.put(node, System.currentTimeMillis());
+            for (SourceStatus status : statuses) {
+                status.setNode(node);
+                SourceStatus known = sources.get(status.getSource());
+                // A source runs on one replica at a time, so the run that started last is current;
+                // a run still going here is never replaced (it is the one being updated)
+                boolean runningHere = known != null && isLocal(known) && SourceStatus.RUNNING.equals(known.getState());
+                if (known == null || (!runningHere && status.getStartedAt() >= known.getStartedAt())) {
+                    sources.put(status.getSource(), status);
+                }
+            }
+            changed();
+        }
+    }
+
+    private boolean isLocal(SourceStatus status) {
+        return clusterEvents.getNodeId().equals(status.getNode());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        publisher.shutdownNow();
+    }
+
+    @Data
+    public static class SourceStatus {
+        static final String RUNNING = "RUNNING";
+        static final String FINISHED = "FINISHED";
+        static final String FAILED = "FAILED";
+
+        private String source;
+        // Replica running the source
+        private String node;
+        private String state;
+        private long startedAt;
+        private long durationMs;
+        private int pagesFetched;
+        private int cardsParsed;
+        private int saved;
+        private String error;
+
+        SourceStatus copy() {
+            SourceStatus copy = new SourceStatus();
+            copy.setSource(source);
+            copy.setNode(node);
+            copy.setState(state);
+            copy.setStartedAt(startedAt);
+            copy.setDurationMs(durationMs);
+            copy.setPagesFetched(pagesFetched);
+            copy.setCardsParsed(cardsParsed);
+            copy.setSaved(saved);
+            copy.setError(error);
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.jobupdater;
+
+import com.jobupdater.scraper.ScraperStrategy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs every scraper on its own interval. A shared worker pool caps how many sources
+ * scrape at once, and a per-source flag makes sure two runs of the same source never
+ * overlap: if the previous run is still going when the source comes due again, that run
+ * is skipped.
+ *
+ * Replicas sharing a database coordinate through {@link ScrapeLeases}: each one polls every
+ * source and only the replica that takes the source's lease runs it. A replica asks for a
+ * lease only while it has a free worker, so busy replicas leave sources to idle ones. A run
+ * whose lease is taken over by another replica is interrupted and stops early.
+ */
+@Component
+public class ScrapeScheduler {
+
+    private final JobScraperService jobScraperService;
+    private final ScrapeLeases scrapeLeases;
+    private final ScraperProperties properties;
+    private final ScraperMetrics scraperMetrics;
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor();
+    private final ExecutorService workers;
+    private final AtomicInteger busyWorkers = new AtomicInteger();
+    private final Map<String, LocalRun> running = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ScrapeScheduler(JobScraperService jobScraperService, ScrapeLeases scrapeLeases,
+            ScraperProperties properties, ScraperMetrics scraperMetrics) {
+        this.jobScraperService = jobScraperService;
+        this.scrapeLeases = scrapeLeases;
+        this.properties = properties;
+        this.scraperMetrics = scraperMetrics;
+        this.workers = scraperMetrics.monitorWorkers(
+                Executors.newFixedThreadPool(Math.max(1, properties.getMaxConcurrency())));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        if (!properties.getCluster().isScrape()) {
+            System.out.println("Backend is ready! Scraping is off on this replica (scraper.cluster.scrape=false)");
+            return;
+        }
+        System.out.println("Backend is ready! Scheduling scrapers with max concurrency "
+                + properties.getMaxConcurrency() + " as " + scrapeLeases.getNodeId() + "...");
+        for (ScraperStrategy scraper : jobScraperService.getScrapers()) {
+            Duration interval = properties.intervalFor(scraper.getSourceKey());
+            long poll = Math.min(interval.toMillis(), properties.getCluster().getPollInterval().toMillis());
+            System.out.println("Scheduling " + scraper.getSourceName() + " every " + interval);
+            // Random phase so replicas started together don't all poll at the same instant
+            long phase = ThreadLocalRandom.current().nextLong(Math.max(1, poll / 4));
+            ticker.scheduleAtFixedRate(() -> poll(scraper), phase, poll, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Runs the given source now unless it is already running here or on another replica.
+     *
+     * @return true if a run was queued
+     */
+    public boolean trigger(ScraperStrategy scraper) {
+        return start(scraper, true);
+    }
+
+    public void triggerAll() {
+        for (ScraperStrategy scraper : jobScraperService.getScrapers()) {
+            trigger(scraper);
+        }
+    }
+
+    // Scheduled check: runs the source if it is due and no replica holds it; true if a run was queued
+    boolean poll(ScraperStrategy scraper) {
+        try {
+            return start(scraper, false);
+        } catch (Exception e) {
+            System.err.println("Could not schedule " + scraper.getSourceName() + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean start(ScraperStrategy scraper, boolean force) {
+        Duration interval = properties.intervalFor(scraper.getSourceKey());
+        LocalRun run = running.computeIfAbsent(scraper.getSourceKey(), k -> new LocalRun());
+        if (!run.active.compareAndSet(false, true)) {
+            // Count a skipped cycle once per interval the run overruns, as the fixed-rate ticks used to
+            long overdue = System.currentTimeMillis() - run.startedAt - interval.toMillis() * (run.skipped + 1);
+            if (force || overdue >= 0) {
+                run.skipped++;
+                System.out.println("Skipping " + scraper.getSourceName() + " cycle, previous run still in progress");
+                scraperMetrics.runSkipped(scraper.getSourceName());
+            }
+            return false;
+        }
+        ScrapeLeases.Lease lease = null;
+        try {
+            if (!force && busyWorkers.get() >= Math.max(1, properties.getMaxConcurrency())) {
+                return false;
+            }
+            lease = scrapeLeases.tryAcquire(scraper.getSourceKey(), interval, force);
+            if (lease == null) {
+                return false;
+            }
+            run.startedAt = System.currentTimeMillis();
+            run.skipped = 0;
+            busyWorkers.incrementAndGet();
+            ScrapeLeases.Lease held = lease;
+            workers.submit(() -> {
+                held.runOn(Thread.currentThread());
+                try {
+                    jobScraperService.runScraper(scraper, held::isLost);
+                } finally {
+                    held.close();
+                    // An interrupt from a lost lease must not carry over to the worker's next run
+                    Thread.interrupted();
+                    busyWorkers.decrementAndGet();
+                    run.active.set(false);
+                }
+            });
+            return true;
+        } catch (RuntimeException e) {
+            if (lease != null) {
+                lease.close();
+                busyWorkers.decrementAndGet();
+                run.active.set(false);
+            }
+            System.err.println("Could not queue scraper " + scraper.getSourceName() + ": " + e.getMessage());
+            return false;
+        } finally {
+            if (lease == null) {
+                run.active.set(false);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ticker.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    // This replica's run of one source
+    private static class LocalRun {
+        final AtomicBoolean active = new AtomicBoolean();
+        volatile long startedAt;
+        volatile int skipped;
+    }
+}
@@ -0,0 +1,165 @@
+package com.jobupdater;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters for the scrape pipeline, exported at /actuator/prometheus.
+ *
+ * Meters of one source's work are tagged with the source (shared batch statements are not, see
+ * {@link #dbInsert}); calls made from inside a scrape run without a source
+ * (browser listener, autoScroll) pick it up from {@link ScrapeProgress}. Keyword / board tags
+ * are only used where the set of values is fixed by configuration.
+ */
+@Component
+public class ScraperMetrics {
+
+    private static final String NO_SOURCE = "none";
+
+    private final MeterRegistry registry;
+    private final ScrapeProgress scrapeProgress;
+
+    @Autowired
+    public ScraperMetrics(MeterRegistry registry, ScrapeProgress scrapeProgress, SeenJobIndex seenJobIndex) {
+        this.registry = registry;
+        this.scrapeProgress = scrapeProgress;
+
+        registry.gauge("scraper.dedup.bloom.keys", seenJobIndex, index -> statOf(index, "bloomKeys"));
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(registry);
+    }
+
+    // Whole run of one source; outcome is "ok" or "failed"
+    public void runFinished(Timer.Sample sample, String source, boolean failed) {
+        sample.stop(registry.timer("scraper.run", "source", source, "outcome", failed ? "failed" : "ok"));
+    }
+
+    // A replica's scrape lease expired mid-run and another replica took the source over
+    public void leaseLost(String source) {
+        registry.counter("scraper.lease.lost", "source", source).increment();
+    }
+
+    public void runSkipped(String source) {
+        registry.counter("scraper.run.skipped", "source", source).increment();
+    }
+
+    public void sessionCreated(Timer.Sample sample, boolean ok) {
+        sample.stop(registry.timer("scraper.browser.session.create", "outcome", ok ? "ok" : "failed"));
+    }
+
+    // driver.get() in a browser session
+    public void pageLoaded(long nanos) {
+        registry.timer("scraper.page.load", "source", currentSource()).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    // HTTP fetches run on the fetcher's own pool, so they are tagged by host rather than source
+    public void httpFetched(String host, String outcome, long nanos) {
+        registry.timer("scraper.http.fetch", "host", host, "outcome", outcome).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    // Outcome of one board check: skipped, not_modified (304), same_body, same_cards or changed
+    public void boardChecked(String source, String outcome) {
+        registry.counter("scraper.board.checks", "source", source, "outcome", outcome).increment();
+    }
+
+    // A host pushed back (429/503, block page, empty results) and the rate limiter slowed down
+    public void throttled(String host, String reason) {
+        registry.counter("scraper.ratelimit.throttled", "host", host, "reason", reason).increment();
+    }
+
+    // Wait for a results page to settle; outcome is ready, empty or timeout
+    public void pageReady(Timer.Sample sample, String outcome) {
+        sample.stop(registry.timer("scraper.page.ready", "source", currentSource(), "outcome", outcome));
+    }
+
+    public void autoScrolled(Timer.Sample sample) {
+        sample.stop(registry.timer("scraper.autoscroll", "source", currentSource()));
+    }
+
+    // Cards found on one keyword search or board page
+    public void cardsFound(String source, String target, int count) {
+        registry.summary("scraper.cards", "source", source, "target", target).record(count);
+    }
+
+    public void parseFailure(String source, String selector) {
+        registry.counter("scraper.parse.failures", "source", source, "selector", selector).increment();
+    }
+
+    public void validated(String source, boolean accepted) {
+        registry.counter("scraper.jobs.validated", "source", source, "result", accepted ? "accepted" : "rejected")
+                .increment();
+    }
+
+    public void saved(String source, int count) {
+        registry.counter("scraper.jobs.saved", "source", source).increment(count);
+    }
+
+    // SeenJobIndex's verdict on one job: exactHits, bloomMisses, dbChecks, or falsePositives for a
+    // dbCheck that found nothing stored
+    public void dedupChecked(String source, String result) {
+        registry.counter("scraper.dedup.lookups", "source", sourceTag(source), "result", result).increment();
+    }
+
+    // Listings stored as links on a job already saved from another source
+    public void clustered(String source, int count) {
+        registry.counter("scraper.jobs.clustered", "source", sourceTag(source)).increment(count);
+    }
+
+    // The lookup and insert statements cover an ingest batch that can mix sources: one timer
+    // sample per statement, and the per-source split in the jobs / rows summaries
+    public void dbLookup(Map<String, Integer> jobsBySource, long nanos) {
+        registry.timer("scraper.db.dedup.lookup").record(nanos, TimeUnit.NANOSECONDS);
+        jobsBySource.forEach((source, jobs) ->
+                registry.summary("scraper.db.dedup.lookup.jobs", "source", sourceTag(source)).record(jobs));
+    }
+
+    public void dbInsert(Map<String, Integer> rowsBySource, long nanos) {
+        registry.timer("scraper.db.insert").record(nanos, TimeUnit.NANOSECONDS);
+        rowsBySource.forEach((source, rows) ->
+                registry.summary("scraper.db.insert.rows", "source", sourceTag(source)).record(rows));
+    }
+
+    public void broadcast(int jobs) {
+        registry.summary("scraper.broadcast.jobs").record(jobs);
+    }
+
+    // Feed responses served from FeedCache; outcome is "hit", "miss" or "not_modified"
+    public void feedCache(String outcome) {
+        registry.counter("feed.cache.requests", "outcome", outcome).increment();
+    }
+
+    // Jobs waiting for the ingest writer
+    public <T extends Collection<?>> T monitorIngestQueue(T queue) {
+        return registry.gaugeCollectionSize("scraper.ingest.queue", Tags.empty(), queue);
+    }
+
+    // Queue depth, active threads and task timings of the scrape worker pool
+    public ExecutorService monitorWorkers(ExecutorService workers) {
+        return ExecutorServiceMetrics.monitor(registry, workers, "scraper.workers");
+    }
+
+    private static String sourceTag(String source) {
+        return source == null ? NO_SOURCE : source;
+    }
+
+    private String currentSource() {
+        String source = scrapeProgress.currentSource();
+        return source == null ? NO_SOURCE : source;
+    }
+
+    private static double statOf(SeenJobIndex index, String stat) {
+        Long value = index.getStats().get(stat);
+        return value == null ? 0 : value.doubleValue();
+    }
+}
@@ -0,0 +1,171 @@
+package com.jobupdater;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "scraper")
+public class ScraperProperties {
+
+    // Max number of sources scraping at the same time. Selenium sources are further limited by the browser pool.
+    private int maxConcurrency = 2;
+
+    // Interval used for any source without its own entry in "intervals"
+    private Duration defaultInterval = Duration.ofMinutes(15);
+
+    // Per-source intervals keyed by ScraperStrategy.getSourceKey(), e.g. scraper.intervals.greenhouse=30m
+    private Map<String, Duration> intervals = new HashMap<>();
+
+    // External source definitions (see sources.json); empty uses the bundled file. Edits are picked up without a restart.
+    private String sourcesFile = "";
+
+    private Browser browser = new Browser();
+
+    private Http http = new Http();
+
+    private Ingest ingest = new Ingest();
+
+    private Dedup dedup = new Dedup();
+
+    private Broadcast broadcast = new Broadcast();
+
+    private Cluster cluster = new Cluster();
+
+    private Feed feed = new Feed();
+
+    public Duration intervalFor(String sourceKey) {
+        return intervals.getOrDefault(sourceKey, defaultInterval);
+    }
+
+    @Data
+    public static class Browser {
+        // Hard cap on live Chrome sessions (idle + borrowed)
+        private int maxSessions = 1;
+
+        // Memory available for browsers; together with sessionMemoryMb this can lower maxSessions. 0 disables it.
+        private int memoryBudgetMb = 0;
+        private int sessionMemoryMb = 300;
+
+        // A session is recycled once it has served this many pages or lived this long
+        private int maxPagesPerSession = 100;
+        private Duration maxSessionAge = Duration.ofMinutes(30);
+
+        // Idle sessions older than this are closed to give memory back between cycles
+        private Duration maxIdle = Duration.ofMinutes(20);
+
+        private Duration borrowTimeout = Duration.ofMinutes(10);
+
+        // Upper bound on waiting for a results page to be ready, with per-source overrides keyed like "intervals"
+        private Duration readyTimeout = Duration.ofSeconds(15);
+        private Map<String, Duration> readyTimeouts = new HashMap<>();
+
+        // A page is ready once its card count and network activity have been unchanged this long
+        private Duration settleTime = Duration.ofMillis(750);
+
+        // How long autoScroll waits for more content after each scroll
+        private Duration scrollTimeout = Duration.ofSeconds(3);
+
+        public Duration readyTimeoutFor(String sourceKey) {
+            return readyTimeouts.getOrDefault(sourceKey, readyTimeout);
+        }
+    }
+
+    @Data
+    public static class Http {
+        // Worker threads shared by all HTTP scrapers, and the most in-flight requests to one host
+        // (the rate limiter lowers the latter while a host is pushing back)
+        private int maxConcurrency = 8;
+        private int perHostConcurrency = 4;
+
+        private Duration connectTimeout = Duration.ofSeconds(10);
+        private Duration requestTimeout = Duration.ofSeconds(20);
+
+        // Boards that keep coming back unchanged sit out up to this many runs between fetches (0 = fetch every run)
+        private int maxSkippedRuns = 3;
+    }
+
+    @Data
+    public static class Ingest {
+        // Scraped jobs are written in batches of this size, or sooner once the oldest has waited maxDelay
+        private int batchSize = 50;
+        private Duration maxDelay = Duration.ofSeconds(2);
+
+        // Jobs waiting for the writer; scrapers block when this many are queued
+        private int queueCapacity = 1000;
+
+        // Directory for the ingest journal, which keeps queued jobs across a restart; empty turns it off
+        private String journalDir = "";
+    }
+
+    @Data
+    public static class Dedup {
+        // Bloom filter size; at ~10 bits per key 256 KB covers roughly 100k jobs (two keys each) at ~1% false positives
+        private int bloomMemoryKb = 256;
+        private int bloomHashes = 7;
+
+        // Recently seen keys kept exactly so repeat sightings skip the database entirely
+        private int exactCacheSize = 20000;
+
+        // Listings from different sources whose title fingerprints differ in at most this many of
+        // 64 bits (same company and city) are kept as one job with several links; -1 turns it off
+        private int clusterMaxDistance = 6;
+    }
+
+    @Data
+    public static class Broadcast {
+        // New jobs saved within this window go out to /topic/jobs as one message
+        private Duration window = Duration.ofSeconds(1);
+
+        // Recently broadcast jobs kept so a reconnecting client can catch up by sequence number
+        private int historySize = 1000;
+
+        // Minimum gap between /topic/status messages; nothing is sent while no scrape state changes
+        private Duration statusInterval = Duration.ofSeconds(1);
+
+        // How events reach clients on other replicas: "local" (this JVM only) or "postgres"
+        private String fanout = "local";
+    }
+
+    @Data
+    public static class Feed {
+        // Serialized feed pages, search results and stats kept between changes to the jobs table
+        private DataSize cacheSize = DataSize.ofMegabytes(16);
+    }
+
+    @Data
+    public static class Cluster {
+        // Whether this replica runs scrapers at all; API-only replicas set this to false
+        private boolean scrape = true;
+
+        // Name this replica takes scrape leases under; empty uses the host name plus a random suffix
+        private String nodeId = "";
+
+        // A lease not renewed for this long (replica gone) can be taken by another replica
+        private Duration leaseTtl = Duration.ofMinutes(2);
+
+        // How often each replica checks whether a source is due; the source's interval still spaces the runs
+        private Duration pollInterval = Duration.ofSeconds(30);
+
+        // The configured node id, or the host name plus a random suffix, fixed on first use
+        public synchronized String resolveNodeId() {
+            if (nodeId == null || nodeId.trim().isEmpty()) {
+                String host;
+                try {
+                    host = java.net.InetAddress.getLocalHost().getHostName();
+                } catch (Exception e) {
+                    host = "node";
+                }
+                // Two instances on one host still need distinct ids
+                nodeId = host + "-" + java.util.UUID.randomUUID().toString().substring(0, 8);
+            }
+            return nodeId.trim();
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.jobupdater;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process "have we stored this job?" index that sits in front of the jobs table.
+ *
+ * Keys are the job's job_key and content_key (see {@link JobKeys}), the same two columns the
+ * database dedup checks in jobs and job_links. A Bloom filter holds every key ever stored and a bounded LRU holds
+ * recently seen keys exactly:
+ * - exact hit: known duplicate, rejected without touching the database
+ * - Bloom miss: definitely new, no existence query needed
+ * - Bloom hit without an exact hit: possibly seen, the database decides
+ *
+ * The index is filled from the jobs table on first use. Until that succeeds every job is
+ * treated as "possibly seen", so a failed warm-up only costs queries, never duplicates.
+ *
+ * Jobs and links other replicas save are recorded when their {@link ClusterEvents} event
+ * arrives. A Bloom miss is only trusted while those events are coming in and the index was
+ * loaded after they started: before the subscription is live, while it is down, and until the
+ * index has been reloaded after a reconnect, misses are checked like Bloom hits. What remains
+ * is the few moments between another replica's save and its event (one broadcast window); an
+ * exact copy is still refused by the unique job_key, a same-content copy under another URL is not.
+ */
+@Component
+public class SeenJobIndex {
+
+    public enum Verdict {
+        KNOWN, NEW, MAYBE
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ScraperProperties.Dedup config;
+    private final ClusterEvents clusterEvents;
+    private final BloomFilter bloom;
+    private final Map<Long, Boolean> exact;
+    private volatile boolean warm = false;
+    // Event epoch the keys were loaded under, see ClusterEvents.eventEpoch()
+    private long warmEpoch = -1;
+
+    private final AtomicLong exactHits = new AtomicLong();
+    private final AtomicLong bloomMisses = new AtomicLong();
+    private final AtomicLong dbChecks = new AtomicLong();
+    private final AtomicLong falsePositives = new AtomicLong();
+
+    @Autowired
+    public SeenJobIndex(JdbcTemplate jdbcTemplate, ScraperProperties properties, ClusterEvents clusterEvents) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.config = properties.getDedup();
+        this.clusterEvents = clusterEvents;
+        this.bloom = new BloomFilter(Math.max(1, config.getBloomMemoryKb()) * 1024L * 8, config.getBloomHashes());
+        int maxExact = Math.max(0, config.getExactCacheSize());
+        this.exact = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+                return size() > maxExact;
+            }
+        };
+    }
+
+    public synchronized Verdict check(Job job) {
+        long epoch = clusterEvents.eventEpoch();
+        ensureWarm(epoch);
+        long jobKey = job.getJobKey();
+        long contentKey = job.getContentKey();
+        if (exact.get(jobKey) != null || exact.get(contentKey) != null) {
+            exactHits.incrementAndGet();
+            return Verdict.KNOWN;
+        }
+        if (warm && epoch >= 0 && warmEpoch == epoch && !bloom.mightContain(jobKey) && !bloom.mightContain(contentKey)) {
+            bloomMisses.incrementAndGet();
+            return Verdict.NEW;
+        }
+        dbChecks.incrementAndGet();
+        return Verdict.MAYBE;
+    }
+
+    // Called for every job that now exists in the table (inserted here or by another replica, or found by a database check)
+    public synchronized void record(Job job) {
+        add(job.getJobKey(), job.getContentKey());
+    }
+
+    // Keys of a listing another replica stored in job_links
+    public synchronized void record(long jobKey, long contentKey) {
+        add(jobKey, contentKey);
+    }
+
+    // Called when the database said a "possibly seen" job was in fact new
+    public void recordFalsePositive() {
+        falsePositives.incrementAndGet();
+    }
+
+    public Map<String, Long> getStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("exactHits", exactHits.get());
+        stats.put("bloomMisses", bloomMisses.get());
+        stats.put("dbChecks", dbChecks.get());
+        stats.put("falsePositives", falsePositives.get());
+        stats.put("bloomKeys", bloom.getInsertions());
+        return stats;
+    }
+
+    // Loads every stored key once, and again whenever the event subscription (re)starts, since
+    // events sent before that may have been missed. The epoch is read before the load, so
+    // anything saved after the load began arrives as an event.
+    private void ensureWarm(long epoch) {
+        if (warm && (epoch < 0 || warmEpoch == epoch)) {
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            bloom.clear();
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement("SELECT job_key, content_key FROM jobs");
+                ps.setFetchSize(1000);
+                return ps;
+            }, (RowCallbackHandler) rs -> add(rs.getLong(1), rs.getLong(2)));
+            // Listings clustered into another job are just as "stored"
+            jdbcTemplate.query("SELECT job_key, content_key FROM job_links",
+                    (RowCallbackHandler) rs -> add(rs.getLong(1), rs.getLong(2)));
+            warm = true;
+            warmEpoch = epoch;
+            System.out.println("Seen-job index warmed with " + bloom.getInsertions() + " keys in "
+                    + (System.currentTimeMillis() - start) + " ms");
+        } catch (Exception e) {
+            System.err.println("Could not warm seen-job index, falling back to database checks: " + e.getMessage());
+        }
+    }
+
+    private void add(long jobKey, long contentKey) {
+        bloom.put(jobKey);
+        bloom.put(contentKey);
+        exact.put(jobKey, Boolean.TRUE);
+        exact.put(contentKey, Boolean.TRUE);
+    }
+
+    private static class BloomFilter {
+        private final long[] bits;
+        private final long bitCount;
+        private final int hashes;
+        private long insertions;
+
+        BloomFilter(long bitCount, int hashes) {
+            this.bits = new long[(int) ((bitCount + 63) / 64)];
+            this.bitCount = (long) bits.length * 64;
+            this.hashes = Math.max(1, hashes);
+        }
+
+        void put(long key) {
+            long h1 = hash(key, 0x9E3779B97F4A7C15L);
+            long h2 = hash(key, 0xC2B2AE3D27D4EB4FL);
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bitCount);
+                bits[(int) (bit >>> 6)] |= 1L << bit;
+            }
+            insertions++;
+        }
+
+        void clear() {
+            java.util.Arrays.fill(bits, 0L);
+            insertions = 0;
+        }
+
+        boolean mightContain(long key) {
+            long h1 = hash(key, 0x9E3779B97F4A7C15L);
+            long h2 = hash(key, 0xC2B2AE3D27D4EB4FL);
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bitCount);
+                if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        long getInsertions() {
+            return insertions;
+        }
+
+        // The keys are already well-mixed hashes; re-mix with a seed for two independent ones
+        private static long hash(long key, long seed) {
+            return JobKeys.mix64(key ^ seed);
+        }
+    }
+}
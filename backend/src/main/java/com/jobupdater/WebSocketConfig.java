@@ -12,6 +12,7 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
+        // In-memory broker per replica; ClusterEvents carries jobs and status between replicas
         config.enableSimpleBroker("/topic");
         config.setApplicationDestinationPrefixes("/app");
     }
@@ -0,0 +1,178 @@
+package com.jobupdater.scraper;
+
+import com.jobupdater.Job;
+import com.jobupdater.ScrapeProgress;
+import com.jobupdater.ScraperMetrics;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+
+/**
+ * Base for sources whose listings are plain server-rendered HTML (public ATS boards).
+ * Pages are fetched concurrently through the shared {@link HttpFetcher} and parsed with
+ * jsoup, so no browser session is needed. Boards are parsed in the order their responses
+ * arrive and every job goes to the sink on the calling thread.
+ *
+ * Boards are fetched conditionally and checked against {@link BoardCache}: a board whose jobs
+ * are the same as last time is not parsed or saved again, and is polled less often. A changed
+ * board is only recorded in the cache once {@link #afterSave} confirms its jobs were saved.
+ *
+ * Boards, URLs and selectors come from the source's {@link SourceDefinition}; a subclass only
+ * turns each extracted card into a {@link Job}.
+ */
+public abstract class BaseHttpScraper implements ScraperStrategy {
+
+    @Autowired
+    private HttpFetcher httpFetcher;
+
+    @Autowired
+    private ScrapeProgress scrapeProgress;
+
+    @Autowired
+    private ScraperMetrics scraperMetrics;
+
+    @Autowired
+    private SourceCatalog sourceCatalog;
+
+    @Autowired
+    private BoardCache boardCache;
+
+    @Autowired
+    private HostRateLimiter rateLimiter;
+
+    // Changed boards of the current run, recorded in the cache once their jobs are saved.
+    // Runs of one source never overlap, so this needs no locking.
+    private final List<BoardCache.Entry> awaitingSave = new ArrayList<>();
+
+    // Builds a job from one card, or returns null (after recording a parse failure) if the card is unusable.
+    // Relative links are already resolved against the final (post-redirect) page URL.
+    protected abstract Job toJob(String target, Map<String, String> card, CardPlan plan);
+
+    @Override
+    public void scrape(Consumer<Job> sink) {
+        // One definition for the whole run, even if the file is reloaded meanwhile
+        SourceDefinition source = sourceCatalog.get(getSourceKey());
+        CardPlan plan = source.getPlan();
+        BlockingQueue<Fetched> completed = new LinkedBlockingQueue<>();
+        int requested = 0;
+        // Left over from a run nobody reported on (e.g. scrape() called directly)
+        afterSave(false);
+        for (String target : sourceCatalog.nextTargets(getSourceKey(), source)) {
+            String url = source.urlFor(target);
+            rateLimiter.forUrl(url).setRequestsPerMinute(source.getRequestsPerMinute());
+            BoardCache.Entry cached = boardCache.entryFor(url);
+            if (cached.skipThisRun()) {
+                scraperMetrics.boardChecked(getSourceName(), "skipped");
+                continue;
+            }
+            // Paced per host by the fetcher's rate limiter
+            httpFetcher.fetchAsync(url, cached.conditionalHeaders(source)).whenComplete((fetched, error) -> completed.add(new Fetched(target, cached, fetched, error)));
+            requested++;
+        }
+
+        for (int i = 0; i < requested; i++) {
+            Fetched fetched;
+            try {
+                fetched = completed.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            String target = fetched.target;
+            scrapeProgress.pageFetched();
+            if (fetched.error != null) {
+                System.err.println("Error fetching " + getSourceName() + " board " + target + ": " + fetched.error.getMessage());
+                continue;
+            }
+            try {
+                if (fetched.page.isNotModified()) {
+                    unchanged(fetched, "not_modified");
+                    continue;
+                }
+                if (!fetched.page.isOk()) {
+                    System.err.println(getSourceName() + ": HTTP " + fetched.page.getStatus() + " for " + target);
+                    continue;
+                }
+                if (fetched.cached.sameBody(fetched.page, source)) {
+                    unchanged(fetched, "same_body");
+                    continue;
+                }
+                Document doc = Jsoup.parse(fetched.page.getBody(), fetched.page.getUrl());
+                List<Map<String, String>> cards = plan.extract(doc);
+                if (fetched.cached.sameCards(cards, source)) {
+                    unchanged(fetched, "same_cards");
+                    continue;
+                }
+                fetched.cached.changed();
+                awaitingSave.add(fetched.cached);
+                scraperMetrics.boardChecked(getSourceName(), "changed");
+                System.out.println("Found " + cards.size() + " cards for " + target);
+                scraperMetrics.cardsFound(getSourceName(), target, cards.size());
+                for (Map<String, String> card : cards) {
+                    Job job = toJob(target, card, plan);
+                    if (job != null && source.acceptsTitle(job.getTitle())) {
+                        sink.accept(job);
+                    }
+                }
+            } catch (Exception e) {
+                scraperMetrics.parseFailure(getSourceName(), "page");
+                fetched.cached.notSaved();
+                System.err.println("Error scraping " + getSourceName() + " board " + target + ": " + e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void afterSave(boolean allSaved) {
+        for (BoardCache.Entry entry : awaitingSave) {
+            if (allSaved) {
+                entry.saved();
+            } else {
+                entry.notSaved();
+            }
+        }
+        awaitingSave.clear();
+    }
+
+    // Same jobs as last time: nothing to parse or save, and the board backs off
+    private void unchanged(Fetched fetched, String outcome) {
+        fetched.cached.unchanged();
+        scraperMetrics.boardChecked(getSourceName(), outcome);
+    }
+
+    // True if the card has all the given fields; otherwise records a parse failure for the first missing one
+    protected boolean hasFields(Map<String, String> card, CardPlan plan, String... fields) {
+        for (String field : fields) {
+            if (!card.containsKey(field)) {
+                scraperMetrics.parseFailure(getSourceName(), plan.selectorOf(field));
+                return false;
+            }
+        }
+        return true;
+    }
+
+    protected static String capitalize(String slug) {
+        return slug.substring(0, 1).toUpperCase() + slug.substring(1);
+    }
+
+    private static class Fetched {
+        final String target;
+        final BoardCache.Entry cached;
+        final HttpFetcher.Page page;
+        final Throwable error;
+
+        Fetched(String target, BoardCache.Entry cached, HttpFetcher.Page page, Throwable error) {
+            this.target = target;
+            this.cached = cached;
+            this.page = page;
+            this.error = error;
+        }
+    }
+}
@@ -1,74 +1,295 @@
 package com.jobupdater.scraper;
 
-import io.github.bonigarcia.wdm.WebDriverManager;
+import com.jobupdater.Job;
+import com.jobupdater.ScraperMetrics;
+import com.jobupdater.ScraperProperties;
+import io.micrometer.core.instrument.Timer;
+import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.WebDriver;
-import org.openqa.selenium.chrome.ChromeDriver;
-import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.WebDriverException;
+import org.springframework.beans.factory.annotation.Autowired;
 
-import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
+/**
+ * Base for sources that need a real browser. Sessions come from the shared {@link WebDriverPool},
+ * which runs them with implicit waits off: pages are waited for once with {@link #awaitCards},
+ * after which lookups inside a card either find the element or fail immediately.
+ *
+ * URLs, targets and selectors come from the source's {@link SourceDefinition}; a subclass only
+ * turns each extracted card into a {@link Job}.
+ */
 public abstract class BaseSeleniumScraper implements ScraperStrategy {
 
-    protected WebDriver createDriver() {
-        String driverPath = System.getenv("CHROME_DRIVER_PATH");
-        String binaryPath = System.getenv("CHROME_BINARY_PATH");
+    private static final long POLL_MILLIS = 200;
 
-        if (driverPath != null && !driverPath.isEmpty()) {
-            System.setProperty("webdriver.chrome.driver", driverPath);
-        } else {
-            WebDriverManager.chromedriver().setup();
-        }
+    // [document.readyState, matching cards, network requests made so far]
+    private static final String READY_PROBE = "return [document.readyState, "
+            + "document.querySelectorAll(arguments[0]).length, "
+            + "performance.getEntriesByType('resource').length];";
+
+    // Runs a CardPlan (passed as JSON) against the page: one row per card, one value per field
+    private static final String EXTRACT_CARDS = String.join("\n",
+            "var plan = JSON.parse(arguments[0]);",
+            "function probe(card, p) {",
+            "  var els = p.selector ? card.querySelectorAll(p.selector) : [card];",
+            "  for (var i = 0; i < els.length; i++) {",
+            "    var el = els[i], v;",
+            "    if (p.attr === 'href') v = el.href || el.getAttribute('href');",
+            "    else if (p.attr) v = el.getAttribute(p.attr);",
+            "    else v = el.innerText || el.textContent;",
+            "    v = v == null ? '' : String(v).trim();",
+            "    if (!v) { if (p.contains) continue; return null; }",
+            "    if (!p.contains) return v;",
+            "    for (var m = 0; m < p.contains.length; m++) if (v.indexOf(p.contains[m]) >= 0) return v;",
+            "  }",
+            "  return null;",
+            "}",
+            "var cards = document.querySelectorAll(plan.card), rows = [];",
+            "for (var c = 0; c < cards.length; c++) {",
+            "  var row = [];",
+            "  for (var f = 0; f < plan.fields.length; f++) {",
+            "    var value = null;",
+            "    for (var k = 0; k < plan.fields[f].length && value === null; k++) value = probe(cards[c], plan.fields[f][k]);",
+            "    row.push(value);",
+            "  }",
+            "  rows.push(row);",
+            "}",
+            "return rows;");
+
+    @Autowired
+    private WebDriverPool webDriverPool;
+
+    @Autowired
+    private ScraperProperties properties;
+
+    @Autowired
+    private ScraperMetrics scraperMetrics;
+
+    @Autowired
+    private SourceCatalog sourceCatalog;
 
-        ChromeOptions options = new ChromeOptions();
-        if (binaryPath != null && !binaryPath.isEmpty()) {
-            options.setBinary(binaryPath);
+    @Autowired
+    private HostRateLimiter rateLimiter;
+
+    // Builds a job from one card, or returns null (after recording a parse failure) if the card is unusable
+    protected abstract Job toJob(String target, Map<String, String> card, CardPlan plan);
+
+    // Runs once the page is ready, before it is scrolled and read (e.g. to dismiss popups)
+    protected void beforeExtract(WebDriver driver) {
+    }
+
+    @Override
+    public void scrape(Consumer<Job> sink) {
+        // One definition for the whole run, even if the file is reloaded meanwhile
+        SourceDefinition source = sourceCatalog.get(getSourceKey());
+        CardPlan plan = source.getPlan();
+        WebDriver driver = null;
+        try {
+            driver = borrowDriver();
+            for (String target : sourceCatalog.nextTargets(getSourceKey(), source)) {
+                try {
+                    String url = source.urlFor(target);
+                    HostRateLimiter.Bucket bucket = rateLimiter.forUrl(url);
+                    bucket.setRequestsPerMinute(source.getRequestsPerMinute());
+                    bucket.acquire();
+                    // Exactly one outcome per acquire, whatever throws: a lost slot would block the host for good
+                    String pushback = null;
+                    boolean reported = false;
+                    try {
+                        System.out.println("Scraping " + getSourceName() + " for: " + target);
+                        driver.get(url);
+                        int found = awaitCards(driver, plan.getCardSelector());
+                        // A block page or an empty result list both mean the site wants us to slow down
+                        if (source.isBlockedPage(driver.getCurrentUrl(), driver.getTitle())) {
+                            pushback = "blocked";
+                        } else if (found == 0) {
+                            pushback = "empty";
+                        }
+                        reported = true;
+                    } finally {
+                        if (!reported) {
+                            bucket.released();
+                        } else if (pushback != null) {
+                            bucket.throttled(pushback, 0);
+                        } else {
+                            bucket.succeeded();
+                        }
+                    }
+                    if ("blocked".equals(pushback)) {
+                        System.err.println(getSourceName() + ": block page for " + target);
+                        continue;
+                    }
+
+                    beforeExtract(driver);
+                    if (source.isAutoScroll()) {
+                        autoScroll(driver);
+                    }
+
+                    List<Map<String, String>> cards = extractCards(driver, plan);
+                    System.out.println("Found " + cards.size() + " cards for " + target);
+                    cardsFound(target, cards.size());
+
+                    for (Map<String, String> card : cards) {
+                        Job job = toJob(target, card, plan);
+                        if (job != null && source.acceptsTitle(job.getTitle())) {
+                            sink.accept(job);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    throw e;
+                } catch (Exception e) {
+                    System.err.println("Error scraping " + getSourceName() + " for " + target + ": " + e.getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            System.err.println("Error scraping " + getSourceName() + ": " + e.getMessage());
+        } finally {
+            releaseDriver(driver);
         }
-        options.addArguments("--headless=new"); // Run in background
-        options.addArguments("--disable-gpu");
-        options.addArguments("--no-sandbox");
-        options.addArguments("--disable-dev-shm-usage");
-        options.addArguments("--remote-allow-origins=*");
-        // Stealth args
-        options.addArguments("--disable-blink-features=AutomationControlled");
-        options.setExperimentalOption("excludeSwitches", java.util.Collections.singletonList("enable-automation"));
-        options.setExperimentalOption("useAutomationExtension", false);
-        // User agent to look like a real browser
-        options.addArguments(
-                "user-agent=Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36");
-
-        WebDriver driver = new ChromeDriver(options);
-        driver.manage().timeouts().implicitlyWait(Duration.ofSeconds(10));
-        return driver;
     }
 
-    protected void quitDriver(WebDriver driver) {
-        if (driver != null) {
+    // Borrows a browser session from the shared pool; must be handed back with releaseDriver()
+    protected WebDriver borrowDriver() throws InterruptedException {
+        return webDriverPool.borrow();
+    }
+
+    protected void releaseDriver(WebDriver driver) {
+        webDriverPool.giveBack(driver);
+    }
+
+    // Records how many cards a keyword search (or the single listing page) produced
+    protected void cardsFound(String keyword, int count) {
+        scraperMetrics.cardsFound(getSourceName(), keyword, count);
+    }
+
+    // Records a card that could not be turned into a job because the given selector failed
+    protected void parseFailure(String selector) {
+        scraperMetrics.parseFailure(getSourceName(), selector);
+    }
+
+    /**
+     * Waits until a results page is usable: the document has loaded, at least one card matches
+     * cardSelector, and both the card count and the number of network requests have stayed the
+     * same for the settle time. A page that finishes loading with no cards is given up on after
+     * twice the settle time. Never waits longer than the source's ready timeout.
+     *
+     * @return the number of matching cards when the wait ended
+     */
+    protected int awaitCards(WebDriver driver, String cardSelector) throws InterruptedException {
+        Timer.Sample sample = scraperMetrics.start();
+        JavascriptExecutor js = (JavascriptExecutor) driver;
+        long settleMillis = properties.getBrowser().getSettleTime().toMillis();
+        long deadline = System.currentTimeMillis() + properties.getBrowser().readyTimeoutFor(getSourceKey()).toMillis();
+
+        String lastState = null;
+        long unchangedSince = System.currentTimeMillis();
+        int cards = 0;
+        while (true) {
+            long now = System.currentTimeMillis();
+            boolean loaded = false;
             try {
-                driver.quit();
-            } catch (Exception e) {
-                // Ignore cleanup errors
+                List<?> probe = (List<?>) js.executeScript(READY_PROBE, cardSelector);
+                loaded = "complete".equals(probe.get(0));
+                cards = ((Number) probe.get(1)).intValue();
+                String state = loaded + ":" + cards + ":" + probe.get(2);
+                if (!state.equals(lastState)) {
+                    lastState = state;
+                    unchangedSince = now;
+                }
+            } catch (WebDriverException e) {
+                // Page still navigating; try again
+                lastState = null;
             }
+
+            long quietFor = now - unchangedSince;
+            if (loaded && cards > 0 && quietFor >= settleMillis) {
+                scraperMetrics.pageReady(sample, "ready");
+                return cards;
+            }
+            if (loaded && cards == 0 && quietFor >= 2 * settleMillis) {
+                scraperMetrics.pageReady(sample, "empty");
+                return 0;
+            }
+            if (now >= deadline) {
+                System.err.println(getSourceName() + ": page not settled within ready timeout (" + cards + " cards)");
+                scraperMetrics.pageReady(sample, "timeout");
+                return cards;
+            }
+            Thread.sleep(POLL_MILLIS);
         }
     }
 
+    /**
+     * Reads every card on the current page in a single script call. Each returned map holds
+     * the plan's fields by name; a field none of whose probes matched is absent.
+     */
+    protected List<Map<String, String>> extractCards(WebDriver driver, CardPlan plan) {
+        List<?> rows = (List<?>) ((JavascriptExecutor) driver).executeScript(EXTRACT_CARDS, plan.toJson());
+        List<String> names = plan.getFieldNames();
+        List<Map<String, String>> cards = new ArrayList<>(rows == null ? 0 : rows.size());
+        if (rows == null) {
+            return cards;
+        }
+        for (Object row : rows) {
+            List<?> values = (List<?>) row;
+            Map<String, String> card = new HashMap<>();
+            for (int i = 0; i < names.size(); i++) {
+                Object value = values.get(i);
+                if (value != null) {
+                    card.put(names.get(i), value.toString());
+                }
+            }
+            cards.add(card);
+        }
+        return cards;
+    }
+
+    // True if the card has all the given fields; otherwise records a parse failure for the first missing one
+    protected boolean hasFields(Map<String, String> card, CardPlan plan, String... fields) {
+        for (String field : fields) {
+            if (!card.containsKey(field)) {
+                parseFailure(plan.selectorOf(field));
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Scrolls to the bottom up to 5 times, moving on as soon as the page grows and stopping once it doesn't
     protected void autoScroll(WebDriver driver) {
+        Timer.Sample sample = scraperMetrics.start();
         try {
-            org.openqa.selenium.JavascriptExecutor js = (org.openqa.selenium.JavascriptExecutor) driver;
-            long lastHeight = (long) js.executeScript("return document.body.scrollHeight");
+            JavascriptExecutor js = (JavascriptExecutor) driver;
+            long lastHeight = ((Number) js.executeScript("return document.body.scrollHeight")).longValue();
+            long scrollTimeout = properties.getBrowser().getScrollTimeout().toMillis();
 
-            // Scroll down 5 times
             for (int i = 0; i < 5; i++) {
                 js.executeScript("window.scrollTo(0, document.body.scrollHeight);");
-                Thread.sleep(2000); // Wait for content to load
 
-                long newHeight = (long) js.executeScript("return document.body.scrollHeight");
+                long deadline = System.currentTimeMillis() + scrollTimeout;
+                long newHeight = lastHeight;
+                while (newHeight == lastHeight && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(POLL_MILLIS);
+                    newHeight = ((Number) js.executeScript("return document.body.scrollHeight")).longValue();
+                }
                 if (newHeight == lastHeight) {
                     break;
                 }
                 lastHeight = newHeight;
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         } catch (Exception e) {
             System.err.println("Error during auto-scroll: " + e.getMessage());
+        } finally {
+            scraperMetrics.autoScrolled(sample);
         }
     }
 }
@@ -0,0 +1,168 @@
+package com.jobupdater.scraper;
+
+import com.jobupdater.ScraperProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * What the last fetch of each board URL looked like, so unchanged boards cost as little as
+ * possible: validators for a conditional request (304 skips the body), a hash of the body (an
+ * identical page skips the HTML parse) and a hash of the extracted cards (the same jobs skip
+ * validation and dedup).
+ *
+ * Boards that keep coming back unchanged are also polled less often: after n unchanged fetches
+ * in a row the board sits out 2^n - 1 runs, capped at scraper.http.max-skipped-runs. Any change
+ * puts it back on every run.
+ *
+ * What a changed board looked like is only remembered once its jobs are saved ({@link
+ * Entry#saved}). If they never make it to the table, the next run still sees the board as
+ * changed and sends its jobs again.
+ *
+ * Kept in memory only; after a restart every board is fetched in full once.
+ */
+@Component
+public class BoardCache {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final int maxSkippedRuns;
+
+    @Autowired
+    public BoardCache(ScraperProperties properties) {
+        this.maxSkippedRuns = properties.getHttp().getMaxSkippedRuns();
+    }
+
+    public Entry entryFor(String url) {
+        return entries.computeIfAbsent(url, u -> new Entry());
+    }
+
+    /**
+     * One board URL. Only the run that scrapes the board touches its entry, and runs of the same
+     * source never overlap, so the entry needs no locking of its own.
+     */
+    public class Entry {
+        // The board as of its last saved fetch, and the latest fetch while its jobs are being saved
+        private volatile Snapshot current = new Snapshot();
+        private volatile Snapshot pending;
+        private volatile int unchangedStreak;
+        private volatile int runsToSkip;
+
+        // True (and counts the run as skipped) while the board is backed off
+        public boolean skipThisRun() {
+            if (runsToSkip > 0) {
+                runsToSkip--;
+                return true;
+            }
+            return false;
+        }
+
+        // If-None-Match / If-Modified-Since for the next request. None after a definition
+        // reload, so the new selectors get to see the page.
+        public Map<String, String> conditionalHeaders(Object version) {
+            Snapshot saved = current;
+            Map<String, String> headers = new LinkedHashMap<>();
+            if (version != saved.version) {
+                return headers;
+            }
+            if (saved.etag != null) {
+                headers.put("If-None-Match", saved.etag);
+            }
+            if (saved.lastModified != null) {
+                headers.put("If-Modified-Since", saved.lastModified);
+            }
+            return headers;
+        }
+
+        // Takes the validators of a full response and reports whether its body is the one seen last time
+        public boolean sameBody(HttpFetcher.Page page, Object version) {
+            Snapshot saved = current;
+            Snapshot next = saved.copy();
+            next.etag = page.getHeaders().firstValue("ETag").orElse(null);
+            next.lastModified = page.getHeaders().firstValue("Last-Modified").orElse(null);
+            next.bodyHash = sha256(page.getBody());
+            pending = next;
+            return next.bodyHash.equals(saved.bodyHash) && version == saved.version;
+        }
+
+        // Reports whether the extracted cards are the ones seen last time
+        public boolean sameCards(List<Map<String, String>> cards, Object version) {
+            StringBuilder text = new StringBuilder();
+            for (Map<String, String> card : cards) {
+                // Sorted so the hash does not depend on map iteration order
+                text.append(new TreeMap<>(card)).append('\n');
+            }
+            Snapshot saved = current;
+            Snapshot next = pending == null ? saved.copy() : pending;
+            next.cardsHash = sha256(text.toString());
+            next.version = version;
+            pending = next;
+            return next.cardsHash.equals(saved.cardsHash) && version == saved.version;
+        }
+
+        // Nothing new to save, so the latest fetch is remembered right away
+        public void unchanged() {
+            saved();
+            unchangedStreak++;
+            runsToSkip = Math.min((1 << Math.min(unchangedStreak, 16)) - 1, maxSkippedRuns);
+        }
+
+        // The board's jobs go out to be saved; see saved() and notSaved()
+        public void changed() {
+            unchangedStreak = 0;
+            runsToSkip = 0;
+        }
+
+        // The jobs from the latest fetch are in the table
+        public void saved() {
+            if (pending != null) {
+                current = pending;
+                pending = null;
+            }
+        }
+
+        // Some jobs from the latest fetch were never saved; forget the fetch so the next one is a full one
+        public void notSaved() {
+            pending = null;
+        }
+    }
+
+    private static class Snapshot {
+        String etag;
+        String lastModified;
+        String bodyHash;
+        String cardsHash;
+        // The definition the hashes were taken under; a reload invalidates them
+        Object version;
+
+        Snapshot copy() {
+            Snapshot copy = new Snapshot();
+            copy.etag = etag;
+            copy.lastModified = lastModified;
+            copy.bodyHash = bodyHash;
+            copy.cardsHash = cardsHash;
+            copy.version = version;
+            return copy;
+        }
+    }
+
+    private static String sha256(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.jobupdater.scraper;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Data;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Elements;
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.QueryParser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Declares how to read job cards off a results page: the card selector plus, for each field,
+ * the probes to try in order. A probe reads the text or an attribute of the first element
+ * matching its selector inside the card (or of the card itself when the selector is null);
+ * the first probe that yields a non-blank value wins.
+ *
+ * Plans are built from the source definitions in {@link SourceCatalog}. Every selector is
+ * parsed up front, so a typo fails the (re)load instead of a scrape run. The same plan runs in
+ * the browser ({@link BaseSeleniumScraper#extractCards}, one script call per page) or on a
+ * jsoup document ({@link #extract}).
+ */
+public class CardPlan {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final String cardSelector;
+    private final Map<String, List<Probe>> fields;
+    private final String json;
+    // Parsed selectors for extract(), so a page does not re-parse them for every card
+    private final Evaluator cardEvaluator;
+    private final Map<String, Evaluator> evaluators = new HashMap<>();
+
+    public CardPlan(String cardSelector, Map<String, List<Probe>> fields) {
+        if (cardSelector == null || cardSelector.trim().isEmpty()) {
+            throw new IllegalArgumentException("card selector is required");
+        }
+        this.cardEvaluator = QueryParser.parse(cardSelector);
+        for (Map.Entry<String, List<Probe>> field : fields.entrySet()) {
+            if (field.getValue() == null || field.getValue().isEmpty()) {
+                throw new IllegalArgumentException("field " + field.getKey() + " has no probes");
+            }
+            for (Probe probe : field.getValue()) {
+                if (probe.getSelector() != null) {
+                    evaluators.put(probe.getSelector(), QueryParser.parse(probe.getSelector()));
+                }
+            }
+        }
+        this.cardSelector = cardSelector;
+        this.fields = Collections.unmodifiableMap(new LinkedHashMap<>(fields));
+
+        // The plan as the JSON the extraction script expects: {card, fields: [[probe, ...], ...]}
+        Map<String, Object> plan = new LinkedHashMap<>();
+        plan.put("card", cardSelector);
+        plan.put("fields", new ArrayList<>(this.fields.values()));
+        try {
+            this.json = JSON.writeValueAsString(plan);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize card plan for " + cardSelector, e);
+        }
+    }
+
+    public String getCardSelector() {
+        return cardSelector;
+    }
+
+    public List<String> getFieldNames() {
+        return new ArrayList<>(fields.keySet());
+    }
+
+    // First selector declared for a field, used to tag parse failures
+    public String selectorOf(String field) {
+        List<Probe> probes = fields.get(field);
+        if (probes == null || probes.isEmpty() || probes.get(0).getSelector() == null) {
+            return "card";
+        }
+        return probes.get(0).getSelector();
+    }
+
+    String toJson() {
+        return json;
+    }
+
+    /**
+     * Runs the plan on a parsed page. Same semantics as the browser script, except that text is
+     * the element's normalized text rather than its rendered text.
+     */
+    public List<Map<String, String>> extract(Document doc) {
+        List<Map<String, String>> cards = new ArrayList<>();
+        for (Element card : doc.select(cardEvaluator)) {
+            Map<String, String> values = new HashMap<>();
+            for (Map.Entry<String, List<Probe>> field : fields.entrySet()) {
+                for (Probe probe : field.getValue()) {
+                    String value = probe(card, probe);
+                    if (value != null) {
+                        values.put(field.getKey(), value);
+                        break;
+                    }
+                }
+            }
+            cards.add(values);
+        }
+        return cards;
+    }
+
+    private String probe(Element card, Probe probe) {
+        Elements elements = probe.getSelector() == null ? new Elements(card) : card.select(evaluators.get(probe.getSelector()));
+        for (Element el : elements) {
+            String value;
+            if ("href".equals(probe.getAttr())) {
+                value = el.absUrl("href").isEmpty() ? el.attr("href") : el.absUrl("href");
+            } else if (probe.getAttr() != null) {
+                value = el.attr(probe.getAttr());
+            } else {
+                value = el.text();
+            }
+            value = value.trim();
+            if (value.isEmpty()) {
+                if (probe.getContains() != null) {
+                    continue;
+                }
+                return null;
+            }
+            if (probe.getContains() == null) {
+                return value;
+            }
+            for (String marker : probe.getContains()) {
+                if (value.contains(marker)) {
+                    return value;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * One way to read a field. attr null reads the text; "href" reads the absolute link.
+     * contains, when set, skips elements whose value mentions none of the markers.
+     */
+    @Data
+    public static class Probe {
+        private String selector;
+        private String attr;
+        private List<String> contains;
+    }
+}
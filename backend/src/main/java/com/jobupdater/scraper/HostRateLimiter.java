@@ -0,0 +1,147 @@
+package com.jobupdater.scraper;
+
+import com.jobupdater.ScraperMetrics;
+import com.jobupdater.ScraperProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Paces requests per host with a token bucket and an adaptive concurrency limit.
+ *
+ * A source's requestsPerMinute is the ceiling. When a host pushes back (HTTP 429/503, a block
+ * page, a results page with no cards) the rate and the in-flight limit are halved and the host
+ * is paused, for Retry-After if given. Each success then adds a tenth of the ceiling back, and
+ * the in-flight limit grows by one after a full window of successes, so a source settles just
+ * under whatever the site tolerates.
+ */
+@Component
+public class HostRateLimiter {
+
+    // The rate never drops below ceiling / MIN_RATE_DIVISOR
+    private static final int MIN_RATE_DIVISOR = 16;
+
+    private final int maxConcurrency;
+    private final ScraperMetrics scraperMetrics;
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    @Autowired
+    public HostRateLimiter(ScraperProperties properties, ScraperMetrics scraperMetrics) {
+        this.maxConcurrency = Math.max(1, properties.getHttp().getPerHostConcurrency());
+        this.scraperMetrics = scraperMetrics;
+    }
+
+    public Bucket forUrl(String url) {
+        return forHost(String.valueOf(URI.create(url).getHost()));
+    }
+
+    public Bucket forHost(String host) {
+        return buckets.computeIfAbsent(host, Bucket::new);
+    }
+
+    public class Bucket {
+        private final String host;
+        // Requests per millisecond; 0 means no ceiling (only pushback slows the host down)
+        private double maxRate = 0;
+        private double rate = 0;
+        private double tokens = 1;
+        private long lastRefill = System.currentTimeMillis();
+        private long pausedUntil = 0;
+        private int concurrency = maxConcurrency;
+        private int inFlight = 0;
+        private int successes = 0;
+
+        Bucket(String host) {
+            this.host = host;
+        }
+
+        // Sets the ceiling from the source definition; called at the start of every run so reloads apply
+        public synchronized void setRequestsPerMinute(int requestsPerMinute) {
+            double ceiling = requestsPerMinute > 0 ? requestsPerMinute / 60000.0 : 0;
+            if (ceiling != maxRate) {
+                maxRate = ceiling;
+                rate = ceiling;
+            }
+        }
+
+        // Blocks until a request to this host may start; must be paired with one of the outcome calls
+        public synchronized void acquire() throws InterruptedException {
+            long wait;
+            while ((wait = tryAcquire()) != 0) {
+                // -1: until a release
+                wait(Math.max(0, wait));
+            }
+        }
+
+        /**
+         * Starts a request if one may start now and returns 0; it must then be paired with one of
+         * the outcome calls. Otherwise returns how many milliseconds to wait before asking again,
+         * or -1 while the in-flight limit is reached (ask again when a request finishes).
+         */
+        public synchronized long tryAcquire() {
+            long now = System.currentTimeMillis();
+            refill(now);
+            if (now < pausedUntil) {
+                return pausedUntil - now;
+            } else if (inFlight >= concurrency) {
+                return -1;
+            } else if (rate > 0 && tokens < 1) {
+                return Math.max(1, (long) Math.ceil((1 - tokens) / rate));
+            }
+            if (rate > 0) {
+                tokens -= 1;
+            }
+            inFlight++;
+            return 0;
+        }
+
+        public synchronized void succeeded() {
+            inFlight--;
+            if (maxRate > 0) {
+                rate = Math.min(maxRate, rate + maxRate / 10);
+            }
+            if (++successes >= concurrency) {
+                successes = 0;
+                concurrency = Math.min(maxConcurrency, concurrency + 1);
+            }
+            notifyAll();
+        }
+
+        /**
+         * The host pushed back. Halves rate and concurrency and pauses the host for retryAfterMillis,
+         * or one request interval when the server gave no hint.
+         */
+        public synchronized void throttled(String reason, long retryAfterMillis) {
+            inFlight--;
+            successes = 0;
+            concurrency = Math.max(1, concurrency / 2);
+            if (maxRate > 0) {
+                rate = Math.max(maxRate / MIN_RATE_DIVISOR, rate / 2);
+            }
+            long pause = retryAfterMillis > 0 ? retryAfterMillis : (rate > 0 ? (long) (1 / rate) : 1000);
+            pausedUntil = Math.max(pausedUntil, System.currentTimeMillis() + pause);
+            tokens = 0;
+            System.err.println("Backing off " + host + " (" + reason + "): "
+                    + (rate > 0 ? String.format("%.1f", rate * 60000) + " req/min, " : "")
+                    + concurrency + " in flight, paused " + pause + "ms");
+            scraperMetrics.throttled(host, reason);
+            notifyAll();
+        }
+
+        // Request finished without telling us anything about the host's limits (e.g. a 404 or connect error)
+        public synchronized void released() {
+            inFlight--;
+            notifyAll();
+        }
+
+        private void refill(long now) {
+            if (rate > 0) {
+                tokens = Math.min(1, tokens + (now - lastRefill) * rate);
+            }
+            lastRefill = now;
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.jobupdater.scraper;
+
+import com.jobupdater.ScraperMetrics;
+import com.jobupdater.ScraperProperties;
+import lombok.Data;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Shared non-browser HTTP client for scrapers that only need the page HTML.
+ *
+ * One keep-alive {@link HttpClient} is reused for every request, responses are requested
+ * compressed, and fetches run on a bounded worker pool. Each host is paced by the
+ * {@link HostRateLimiter}, which slows down when the host answers 429 or 503.
+ *
+ * Async fetches wait in a queue per host until the host's limiter lets them start, and only
+ * then go to the pool, so a slow or throttled host never holds workers that other hosts'
+ * fetches could use.
+ */
+@Component
+public class HttpFetcher {
+
+    private static final String USER_AGENT = "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36";
+
+    // A host at its in-flight limit is normally drained by its own finishing fetches; this catches
+    // slots freed by callers outside the fetcher (the browser scrapers use the same limiter)
+    private static final long RECHECK_MILLIS = 250;
+
+    private final ScraperProperties.Http config;
+    private final HttpClient client;
+    private final ExecutorService workers;
+    // Wakes host queues whose next fetch is waiting for a token or the end of a pause
+    private final ScheduledExecutorService timer;
+    private final Map<String, HostQueue> hosts = new ConcurrentHashMap<>();
+    private final HostRateLimiter rateLimiter;
+    private final ScraperMetrics scraperMetrics;
+
+    @Autowired
+    public HttpFetcher(ScraperProperties properties, HostRateLimiter rateLimiter, ScraperMetrics scraperMetrics) {
+        this.config = properties.getHttp();
+        this.rateLimiter = rateLimiter;
+        this.scraperMetrics = scraperMetrics;
+        AtomicInteger threads = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(Math.max(1, config.getMaxConcurrency()), r -> {
+            Thread t = new Thread(r, "http-fetcher-" + threads.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "http-fetcher-timer");
+            t.setDaemon(true);
+            return t;
+        });
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(config.getConnectTimeout())
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    public CompletableFuture<Page> fetchAsync(String url) {
+        return fetchAsync(url, Collections.emptyMap());
+    }
+
+    // Extra request headers, e.g. If-None-Match for a conditional fetch
+    public CompletableFuture<Page> fetchAsync(String url, Map<String, String> headers) {
+        URI uri = URI.create(url);
+        String host = String.valueOf(uri.getHost());
+        HostQueue queue = hosts.computeIfAbsent(host, h -> new HostQueue(rateLimiter.forHost(h)));
+        CompletableFuture<Page> result = new CompletableFuture<>();
+        // Runs on a worker once the host's limiter has let it start
+        queue.add(() -> {
+            try {
+                result.complete(send(uri, headers, queue.bucket));
+            } catch (Exception e) {
+                if (e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+                result.completeExceptionally(e);
+            } finally {
+                queue.drain();
+            }
+        });
+        queue.drain();
+        return result;
+    }
+
+    // Fetches on the calling thread, blocking while the host's limiter holds it back
+    public Page fetch(String url) throws IOException, InterruptedException {
+        return fetch(url, Collections.emptyMap());
+    }
+
+    public Page fetch(String url, Map<String, String> headers) throws IOException, InterruptedException {
+        URI uri = URI.create(url);
+        HostRateLimiter.Bucket bucket = rateLimiter.forHost(String.valueOf(uri.getHost()));
+        bucket.acquire();
+        return send(uri, headers, bucket);
+    }
+
+    // One request whose start the bucket has already granted; reports its outcome to the bucket
+    private Page send(URI uri, Map<String, String> headers, HostRateLimiter.Bucket bucket)
+            throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        String outcome = "error";
+        boolean reported = false;
+        try {
+            HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                    .timeout(config.getRequestTimeout())
+                    .header("User-Agent", USER_AGENT)
+                    .header("Accept", "text/html,application/xhtml+xml,application/json;q=0.9,*/*;q=0.8")
+                    .header("Accept-Encoding", "gzip, deflate")
+                    .GET();
+            headers.forEach(request::header);
+            HttpResponse<byte[]> response = client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+            int status = response.statusCode();
+            if (status == 429 || status == 503) {
+                bucket.throttled("http_" + status, retryAfterMillis(response.headers()));
+            } else if (status < 400) {
+                bucket.succeeded();
+            } else {
+                bucket.released();
+            }
+            reported = true;
+            String body = decode(response.body(), response.headers());
+            outcome = status / 100 + "xx";
+            return new Page(response.uri().toString(), status, body, response.headers());
+        } finally {
+            if (!reported) {
+                bucket.released();
+            }
+            scraperMetrics.httpFetched(String.valueOf(uri.getHost()), outcome, System.nanoTime() - start);
+        }
+    }
+
+    // Retry-After as delay-seconds or an HTTP date; 0 if absent or unparseable
+    private static long retryAfterMillis(HttpHeaders headers) {
+        String value = headers.firstValue("Retry-After").orElse("").trim();
+        if (value.isEmpty()) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(value) * 1000;
+        } catch (NumberFormatException e) {
+            try {
+                long at = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+                return Math.max(0, at - System.currentTimeMillis());
+            } catch (DateTimeParseException ignored) {
+                return 0;
+            }
+        }
+    }
+
+    private static String decode(byte[] raw, HttpHeaders headers) throws IOException {
+        String encoding = headers.firstValue("Content-Encoding").orElse("").toLowerCase();
+        Charset charset = charsetOf(headers);
+        if (raw.length == 0 || encoding.isEmpty() || encoding.equals("identity")) {
+            return new String(raw, charset);
+        }
+        InputStream in = new ByteArrayInputStream(raw);
+        if (encoding.contains("gzip")) {
+            in = new GZIPInputStream(in);
+        } else if (encoding.contains("deflate")) {
+            in = new InflaterInputStream(in);
+        }
+        try (InputStream decoded = in) {
+            return new String(decoded.readAllBytes(), charset);
+        }
+    }
+
+    // The charset parameter of Content-Type; UTF-8 when absent or unknown
+    private static Charset charsetOf(HttpHeaders headers) {
+        for (String param : headers.firstValue("Content-Type").orElse("").split(";")) {
+            String value = param.trim();
+            if (value.toLowerCase(Locale.ROOT).startsWith("charset=")) {
+                try {
+                    return Charset.forName(value.substring("charset=".length()).replace("\"", "").trim());
+                } catch (IllegalArgumentException e) {
+                    break;
+                }
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    // Fetches to one host that its limiter has not let start yet, oldest first
+    private class HostQueue {
+        final HostRateLimiter.Bucket bucket;
+        private final Deque<Runnable> waiting = new ArrayDeque<>();
+        private boolean wakeupScheduled = false;
+
+        HostQueue(HostRateLimiter.Bucket bucket) {
+            this.bucket = bucket;
+        }
+
+        synchronized void add(Runnable fetch) {
+            waiting.addLast(fetch);
+        }
+
+        // Hands the pool as many waiting fetches as the limiter allows, then sets a wakeup for the rest
+        synchronized void drain() {
+            while (!waiting.isEmpty()) {
+                long wait = bucket.tryAcquire();
+                if (wait != 0) {
+                    if (!wakeupScheduled && !timer.isShutdown()) {
+                        wakeupScheduled = true;
+                        timer.schedule(this::wakeUp, wait > 0 ? wait : RECHECK_MILLIS, TimeUnit.MILLISECONDS);
+                    }
+                    return;
+                }
+                workers.execute(waiting.pollFirst());
+            }
+        }
+
+        private void wakeUp() {
+            synchronized (this) {
+                wakeupScheduled = false;
+            }
+            drain();
+        }
+    }
+
+    @Data
+    public static class Page {
+        private final String url;
+        private final int status;
+        private final String body;
+        private final HttpHeaders headers;
+
+        public boolean isOk() {
+            return status >= 200 && status < 300;
+        }
+
+        // 304 answer to a conditional request; the body is empty
+        public boolean isNotModified() {
+            return status == 304;
+        }
+    }
+}
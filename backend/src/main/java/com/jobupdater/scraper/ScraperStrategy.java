@@ -1,10 +1,31 @@
 package com.jobupdater.scraper;
 
 import com.jobupdater.Job;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ScraperStrategy {
-    List<Job> scrape();
+    // Pushes each job to the sink as soon as its card is parsed, so it can be saved
+    // and broadcast without waiting for the rest of the source
+    void scrape(Consumer<Job> sink);
 
     String getSourceName();
+
+    // Collects a whole run into a list (handy for one-off runs and debugging)
+    default List<Job> scrape() {
+        List<Job> jobs = new ArrayList<>();
+        scrape(jobs::add);
+        return jobs;
+    }
+
+    // Called once the jobs of the last scrape(sink) run have been written; allSaved is false if
+    // some never reached the table (a dropped batch, or a run stopped early)
+    default void afterSave(boolean allSaved) {
+    }
+
+    // Stable config key for this source, e.g. "linkedin" for LinkedInScraper
+    default String getSourceKey() {
+        return getClass().getSimpleName().replace("Scraper", "").toLowerCase();
+    }
 }
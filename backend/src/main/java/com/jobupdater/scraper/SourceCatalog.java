@@ -0,0 +1,109 @@
+package com.jobupdater.scraper;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jobupdater.ScraperProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Source definitions (URL templates, keywords / boards, card selectors, rate limits), loaded
+ * from sources.json on the classpath or from the file named by scraper.sources-file.
+ *
+ * Every definition is compiled into a {@link CardPlan} when loaded, so a bad selector is
+ * rejected up front. An external file is checked for changes every few seconds and swapped in
+ * without a restart; if the new version does not load, the previous one stays in use.
+ */
+@Component
+public class SourceCatalog {
+
+    private static final String BUNDLED = "/sources.json";
+
+    private static final ObjectMapper JSON = new ObjectMapper()
+            .enable(JsonParser.Feature.ALLOW_COMMENTS)
+            .enable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    private final Path file;
+    // Runs started per source, for rotating through its targets; survives reloads
+    private final Map<String, AtomicLong> runs = new ConcurrentHashMap<>();
+    private volatile Map<String, SourceDefinition> sources;
+    private FileTime loadedVersion;
+
+    @Autowired
+    public SourceCatalog(ScraperProperties properties) throws IOException {
+        String configured = properties.getSourcesFile();
+        this.file = configured == null || configured.trim().isEmpty() ? null : Paths.get(configured.trim());
+
+        // A broken file at startup is a deployment error, so let it fail the boot
+        if (file == null) {
+            try (InputStream in = SourceCatalog.class.getResourceAsStream(BUNDLED)) {
+                if (in == null) {
+                    throw new IllegalStateException("Missing " + BUNDLED + " on the classpath");
+                }
+                this.sources = compile(JSON.readValue(in, new TypeReference<Map<String, SourceDefinition>>() {}));
+            }
+        } else {
+            this.loadedVersion = Files.getLastModifiedTime(file);
+            this.sources = compile(JSON.readValue(file.toFile(), new TypeReference<Map<String, SourceDefinition>>() {}));
+        }
+        System.out.println("Loaded " + sources.size() + " source definitions from " + (file == null ? "classpath" : file));
+    }
+
+    // The current definition for a source key, e.g. "greenhouse"
+    public SourceDefinition get(String sourceKey) {
+        SourceDefinition source = sources.get(sourceKey);
+        if (source == null) {
+            throw new IllegalStateException("No source definition for '" + sourceKey + "'");
+        }
+        return source;
+    }
+
+    // Targets for the next run of a source, rotating round-robin through its list
+    public List<String> nextTargets(String sourceKey, SourceDefinition source) {
+        long run = runs.computeIfAbsent(sourceKey, k -> new AtomicLong()).getAndIncrement();
+        return source.targetsForRun(run);
+    }
+
+    @Scheduled(fixedDelay = 5000)
+    public void reloadIfChanged() {
+        if (file == null) {
+            return;
+        }
+        try {
+            FileTime version = Files.getLastModifiedTime(file);
+            if (version.equals(loadedVersion)) {
+                return;
+            }
+            loadedVersion = version;
+            sources = compile(JSON.readValue(file.toFile(), new TypeReference<Map<String, SourceDefinition>>() {}));
+            System.out.println("Reloaded " + sources.size() + " source definitions from " + file);
+        } catch (Exception e) {
+            System.err.println("Keeping previous source definitions; " + file + " did not load: " + e.getMessage());
+        }
+    }
+
+    private static Map<String, SourceDefinition> compile(Map<String, SourceDefinition> loaded) {
+        Map<String, SourceDefinition> compiled = new LinkedHashMap<>();
+        for (Map.Entry<String, SourceDefinition> entry : loaded.entrySet()) {
+            entry.getValue().compile(entry.getKey());
+            compiled.put(entry.getKey(), entry.getValue());
+        }
+        return Collections.unmodifiableMap(compiled);
+    }
+}
@@ -0,0 +1,122 @@
+package com.jobupdater.scraper;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One source as declared in the sources file: where to fetch, what to search for and how to
+ * read the cards. Loaded and compiled by {@link SourceCatalog}; a scraper takes the current
+ * definition once at the start of a run, so a reload never changes a run halfway.
+ */
+@Data
+public class SourceDefinition {
+
+    // Placeholder in url replaced by the (encoded) keyword or board
+    public static final String TARGET = "{target}";
+
+    // Target tag used for sources with a single listing page
+    public static final String LISTING = "listing";
+
+    private String url;
+
+    // Keywords or boards, one page each. Empty for a single listing page.
+    private List<String> targets = new ArrayList<>();
+
+    // How many targets to visit per run (0 = all)
+    private int targetsPerRun = 0;
+
+    // Jobs are kept only if the title mentions one of these, ignoring case (empty = keep all)
+    private List<String> titleFilter = new ArrayList<>();
+
+    // Most page loads per minute for this source's host (0 = no ceiling); the rate limiter goes lower when pushed back
+    private int requestsPerMinute = 0;
+
+    // Browser sources only: text in the final URL or page title that means the site served a block page
+    private List<String> blockedMarkers = new ArrayList<>();
+
+    // Browser sources only: scroll to the bottom before reading the cards
+    private boolean autoScroll = true;
+
+    private Cards cards = new Cards();
+
+    @JsonIgnore
+    private CardPlan plan;
+
+    // Builds the extraction plan; fails on a missing url or an invalid selector
+    void compile(String key) {
+        if (url == null || url.trim().isEmpty()) {
+            throw new IllegalArgumentException(key + ": url is required");
+        }
+        if (!targets.isEmpty() && !url.contains(TARGET)) {
+            throw new IllegalArgumentException(key + ": url has no " + TARGET + " for its targets");
+        }
+        try {
+            plan = new CardPlan(cards.getSelector(), cards.getFields());
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException(key + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * The targets to visit on the given run: targetsPerRun consecutive entries starting at
+     * run * targetsPerRun, wrapping around, so every target is visited once per
+     * ceil(targets / targetsPerRun) runs. A single LISTING entry when the source has none.
+     */
+    public List<String> targetsForRun(long run) {
+        if (targets.isEmpty()) {
+            return Collections.singletonList(LISTING);
+        }
+        int size = targets.size();
+        int count = targetsPerRun > 0 ? Math.min(targetsPerRun, size) : size;
+        int first = (int) Math.floorMod(run * count, (long) size);
+        List<String> chosen = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            chosen.add(targets.get((first + i) % size));
+        }
+        return chosen;
+    }
+
+    public String urlFor(String target) {
+        if (!url.contains(TARGET)) {
+            return url;
+        }
+        return url.replace(TARGET, target.trim().replace(" ", "%20"));
+    }
+
+    public boolean acceptsTitle(String title) {
+        if (titleFilter.isEmpty()) {
+            return true;
+        }
+        String lower = title.toLowerCase();
+        for (String word : titleFilter) {
+            if (lower.contains(word.toLowerCase())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // True if the page the browser landed on is a login wall, captcha or block page
+    public boolean isBlockedPage(String url, String title) {
+        for (String marker : blockedMarkers) {
+            if ((url != null && url.contains(marker)) || (title != null && title.contains(marker))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Data
+    public static class Cards {
+        private String selector;
+
+        // Field name -> probes tried in order
+        private Map<String, List<CardPlan.Probe>> fields = new LinkedHashMap<>();
+    }
+}
@@ -0,0 +1,322 @@
+package com.jobupdater.scraper;
+
+import com.jobupdater.ScrapeProgress;
+import com.jobupdater.ScraperMetrics;
+import com.jobupdater.ScraperProperties;
+import io.github.bonigarcia.wdm.WebDriverManager;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.support.events.EventFiringDecorator;
+import org.openqa.selenium.support.events.WebDriverListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded pool of headless Chrome sessions shared by all Selenium scrapers.
+ *
+ * Scrapers borrow a driver for one run and give it back when done. Returned sessions are
+ * health-checked and wiped through the DevTools protocol (every cookie and the HTTP cache of
+ * the whole browser, plus the storage of each origin the session loaded) before the next
+ * borrower gets them, and are recycled once they have served too many pages or lived too long. The
+ * number of live browsers never exceeds the configured session cap, which is further
+ * lowered by the memory budget when one is set.
+ */
+@Component
+public class WebDriverPool {
+
+    private static final String USER_AGENT = "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36";
+
+    private final ScraperProperties.Browser config;
+    private final int capacity;
+    private final Semaphore permits;
+    private final Deque<PooledSession> idle = new ArrayDeque<>();
+    private final Map<WebDriver, PooledSession> leased = new IdentityHashMap<>();
+    private final ScrapeProgress scrapeProgress;
+    private final ScraperMetrics scraperMetrics;
+    private volatile boolean driverBinaryReady = false;
+
+    @Autowired
+    public WebDriverPool(ScraperProperties properties, ScrapeProgress scrapeProgress, ScraperMetrics scraperMetrics) {
+        this.config = properties.getBrowser();
+        this.scrapeProgress = scrapeProgress;
+        this.scraperMetrics = scraperMetrics;
+        int cap = Math.max(1, config.getMaxSessions());
+        if (config.getMemoryBudgetMb() > 0 && config.getSessionMemoryMb() > 0) {
+            cap = Math.max(1, Math.min(cap, config.getMemoryBudgetMb() / config.getSessionMemoryMb()));
+        }
+        this.capacity = cap;
+        this.permits = new Semaphore(cap, true);
+        System.out.println("WebDriver pool capacity: " + cap + " session(s)");
+    }
+
+    public WebDriver borrow() throws InterruptedException {
+        if (!permits.tryAcquire(config.getBorrowTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+            throw new IllegalStateException("Timed out waiting for a browser session");
+        }
+        try {
+            PooledSession session = takeHealthyIdle();
+            if (session == null) {
+                session = newSession();
+            }
+            synchronized (this) {
+                leased.put(session.driver, session);
+            }
+            return session.driver;
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public void giveBack(WebDriver driver) {
+        if (driver == null) {
+            return;
+        }
+        PooledSession session;
+        synchronized (this) {
+            session = leased.remove(driver);
+        }
+        if (session == null) {
+            // Not one of ours, just close it
+            quietQuit(driver);
+            return;
+        }
+        try {
+            if (session.isExpired(config) || !session.isHealthy() || !session.wipe()) {
+                session.close();
+            } else {
+                session.lastReturned = System.currentTimeMillis();
+                synchronized (this) {
+                    idle.addFirst(session);
+                }
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized int getIdleCount() {
+        return idle.size();
+    }
+
+    public synchronized int getLeasedCount() {
+        return leased.size();
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - config.getMaxIdle().toMillis();
+        List<PooledSession> evicted = new ArrayList<>();
+        synchronized (this) {
+            Iterator<PooledSession> it = idle.iterator();
+            while (it.hasNext()) {
+                PooledSession session = it.next();
+                if (session.lastReturned < cutoff || session.isExpired(config)) {
+                    it.remove();
+                    evicted.add(session);
+                }
+            }
+        }
+        evicted.forEach(PooledSession::close);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        List<PooledSession> all;
+        synchronized (this) {
+            all = new ArrayList<>(idle);
+            all.addAll(leased.values());
+            idle.clear();
+            leased.clear();
+        }
+        all.forEach(PooledSession::close);
+    }
+
+    private PooledSession takeHealthyIdle() {
+        while (true) {
+            PooledSession session;
+            synchronized (this) {
+                session = idle.pollFirst();
+            }
+            if (session == null) {
+                return null;
+            }
+            if (!session.isExpired(config) && session.isHealthy()) {
+                return session;
+            }
+            session.close();
+        }
+    }
+
+    private PooledSession newSession() {
+        ensureDriverBinary();
+
+        ChromeOptions options = new ChromeOptions();
+        String binaryPath = System.getenv("CHROME_BINARY_PATH");
+        if (binaryPath != null && !binaryPath.isEmpty()) {
+            options.setBinary(binaryPath);
+        }
+        options.addArguments("--headless=new"); // Run in background
+        options.addArguments("--disable-gpu");
+        options.addArguments("--no-sandbox");
+        options.addArguments("--disable-dev-shm-usage");
+        options.addArguments("--remote-allow-origins=*");
+        // Stealth args
+        options.addArguments("--disable-blink-features=AutomationControlled");
+        options.setExperimentalOption("excludeSwitches", java.util.Collections.singletonList("enable-automation"));
+        options.setExperimentalOption("useAutomationExtension", false);
+        // User agent to look like a real browser
+        options.addArguments("user-agent=" + USER_AGENT);
+
+        io.micrometer.core.instrument.Timer.Sample sample = scraperMetrics.start();
+        ChromeDriver raw;
+        try {
+            raw = new ChromeDriver(options);
+        } catch (RuntimeException e) {
+            scraperMetrics.sessionCreated(sample, false);
+            throw e;
+        }
+        scraperMetrics.sessionCreated(sample, true);
+        // No implicit wait: scrapers wait for the page explicitly, so a missing field in a card fails fast
+        raw.manage().timeouts().implicitlyWait(Duration.ZERO);
+        return new PooledSession(raw, scrapeProgress, scraperMetrics);
+    }
+
+    private void ensureDriverBinary() {
+        if (driverBinaryReady) {
+            return;
+        }
+        synchronized (this) {
+            if (driverBinaryReady) {
+                return;
+            }
+            String driverPath = System.getenv("CHROME_DRIVER_PATH");
+            if (driverPath != null && !driverPath.isEmpty()) {
+                System.setProperty("webdriver.chrome.driver", driverPath);
+            } else {
+                WebDriverManager.chromedriver().setup();
+            }
+            driverBinaryReady = true;
+        }
+    }
+
+    private static void quietQuit(WebDriver driver) {
+        try {
+            driver.quit();
+        } catch (Exception e) {
+            // Ignore cleanup errors
+        }
+    }
+
+    private static class PooledSession {
+        final ChromeDriver raw;
+        final WebDriver driver;
+        // Origins loaded since the last wipe; storage is cleared per origin
+        final Set<String> origins = ConcurrentHashMap.newKeySet();
+        final long createdAt = System.currentTimeMillis();
+        final AtomicInteger pagesServed = new AtomicInteger();
+        volatile long lastReturned = createdAt;
+
+        PooledSession(ChromeDriver raw, ScrapeProgress scrapeProgress, ScraperMetrics scraperMetrics) {
+            this.raw = raw;
+            // Count page loads so the session can be recycled after maxPagesPerSession
+            this.driver = new EventFiringDecorator(new WebDriverListener() {
+                // A session is used by one borrower thread at a time
+                private long getStartedAt;
+
+                @Override
+                public void beforeGet(WebDriver d, String url) {
+                    getStartedAt = System.nanoTime();
+                }
+
+                @Override
+                public void afterGet(WebDriver d, String url) {
+                    pagesServed.incrementAndGet();
+                    String origin = originOf(url);
+                    if (origin != null) {
+                        origins.add(origin);
+                    }
+                    scrapeProgress.pageFetched();
+                    scraperMetrics.pageLoaded(System.nanoTime() - getStartedAt);
+                }
+            }).decorate(raw);
+        }
+
+        boolean isExpired(ScraperProperties.Browser config) {
+            return pagesServed.get() >= config.getMaxPagesPerSession()
+                    || System.currentTimeMillis() - createdAt >= config.getMaxSessionAge().toMillis();
+        }
+
+        boolean isHealthy() {
+            try {
+                raw.getWindowHandle();
+                return true;
+            } catch (Exception e) {
+                return false;
+            }
+        }
+
+        // Clears state left by the previous borrower. Returns false if the session should be dropped.
+        boolean wipe() {
+            try {
+                // The page may have redirected or been navigated away from the URL it was opened with
+                String current = originOf(raw.getCurrentUrl());
+                if (current != null) {
+                    origins.add(current);
+                }
+                raw.get("about:blank");
+                // WebDriver's cookie and storage calls only reach the current origin; DevTools reaches all of them
+                raw.executeCdpCommand("Network.clearBrowserCookies", java.util.Collections.emptyMap());
+                raw.executeCdpCommand("Network.clearBrowserCache", java.util.Collections.emptyMap());
+                for (String origin : origins) {
+                    Map<String, Object> params = new java.util.HashMap<>();
+                    params.put("origin", origin);
+                    params.put("storageTypes", "all");
+                    raw.executeCdpCommand("Storage.clearDataForOrigin", params);
+                }
+                origins.clear();
+                return true;
+            } catch (Exception e) {
+                return false;
+            }
+        }
+
+        private static String originOf(String url) {
+            try {
+                URI uri = URI.create(url);
+                if (uri.getScheme() == null || uri.getHost() == null) {
+                    return null;
+                }
+                return uri.getScheme() + "://" + uri.getHost() + (uri.getPort() == -1 ? "" : ":" + uri.getPort());
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+
+        void close() {
+            quietQuit(raw);
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Moves dedup from the url / (title, company) indexes to two BIGINT keys computed by
+ * com.jobupdater.JobKeys: a unique job_key and an indexed content_key. The rules are a frozen
+ * copy ({@link FrozenKeys}) so this migration keeps meaning what it did when it ran.
+ *
+ * Existing rows get their URL rewritten to the canonical form and their keys backfilled in
+ * Java, since the canonicalizer is not expressible in SQL. Rows that turn out to be the same
+ * job under the new rules (e.g. the same Indeed jk behind two URLs) keep only the first copy.
+ * Rows without a URL have nothing to compare on: they keep their NULL url and get a job_key of
+ * their own (from the row id), so none of them is deleted as a copy of another.
+ */
+public class V3__job_keys extends BaseJavaMigration {
+
+    private static final int BATCH_SIZE = 500;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("ALTER TABLE jobs ADD COLUMN job_key BIGINT");
+            ddl.execute("ALTER TABLE jobs ADD COLUMN content_key BIGINT");
+            // Canonical URLs may collide; job_key takes over uniqueness below
+            ddl.execute("DROP INDEX ux_jobs_url");
+            ddl.execute("DROP INDEX ix_jobs_title_company");
+        }
+
+        try (Statement select = connection.createStatement();
+                PreparedStatement update = connection.prepareStatement(
+                        "UPDATE jobs SET url = ?, job_key = ?, content_key = ? WHERE id = ?")) {
+            select.setFetchSize(BATCH_SIZE);
+            int pending = 0;
+            try (ResultSet rs = select.executeQuery("SELECT id, url, title, company FROM jobs")) {
+                while (rs.next()) {
+                    String title = rs.getString(3);
+                    String company = rs.getString(4);
+                    if (rs.getString(2) == null) {
+                        update.setNull(1, Types.VARCHAR);
+                        update.setLong(2, FrozenKeys.hash64("row:" + rs.getLong(1)));
+                    } else {
+                        String url = FrozenKeys.canonicalUrl(rs.getString(2));
+                        update.setString(1, url);
+                        update.setLong(2, FrozenKeys.jobKey(url, title, company));
+                    }
+                    update.setLong(3, FrozenKeys.contentKey(title, company));
+                    update.setLong(4, rs.getLong(1));
+                    update.addBatch();
+                    if (++pending == BATCH_SIZE) {
+                        update.executeBatch();
+                        pending = 0;
+                    }
+                }
+            }
+            if (pending > 0) {
+                update.executeBatch();
+            }
+        }
+
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("DELETE FROM jobs WHERE id NOT IN (SELECT MIN(id) FROM jobs GROUP BY job_key)");
+            ddl.execute("ALTER TABLE jobs ALTER COLUMN job_key SET NOT NULL");
+            ddl.execute("CREATE UNIQUE INDEX ux_jobs_job_key ON jobs (job_key)");
+            ddl.execute("CREATE INDEX ix_jobs_content_key ON jobs (content_key)");
+        }
+    }
+
+    // What follows is JobKeys as it stood when this migration was written, so the keys it stored
+    // stay reproducible whatever later changes JobKeys makes. Do not change what it computes;
+    // FrozenKeysTest compares the two while they still agree.
+    static final class FrozenKeys {
+
+        private FrozenKeys() {
+        }
+
+        // Host suffix -> where the source's own job id sits in a canonical URL
+        private static final Map<String, Pattern> NATIVE_IDS = new LinkedHashMap<>();
+
+        static {
+            NATIVE_IDS.put("linkedin.com", Pattern.compile("/jobs/view/(\\d+)"));
+            NATIVE_IDS.put("indeed.com", Pattern.compile("[?&]jk=(\\w+)"));
+            NATIVE_IDS.put("greenhouse.io", Pattern.compile("/jobs/(\\d+)"));
+            NATIVE_IDS.put("lever.co", Pattern.compile("^/[^/]+/([0-9a-f]{8}-[0-9a-f-]{27})"));
+            NATIVE_IDS.put("naukri.com", Pattern.compile("/job-listings-[^?]*-(\\d+)$"));
+            NATIVE_IDS.put("glassdoor.co.in", Pattern.compile("[?&]jl=(\\d+)"));
+            NATIVE_IDS.put("glassdoor.com", Pattern.compile("[?&]jl=(\\d+)"));
+            NATIVE_IDS.put("instahyre.com", Pattern.compile("/job-(\\d+)"));
+            NATIVE_IDS.put("wellfound.com", Pattern.compile("/jobs/(\\d+)"));
+        }
+
+        private static final Pattern GH_JID = Pattern.compile("[?&]gh_jid=(\\d+)");
+        // A Greenhouse board's own job page, as opposed to a careers page embedding the board
+        private static final Pattern GREENHOUSE_JOB_PATH = Pattern.compile(".*/jobs/\\d+");
+        private static final Pattern LINKEDIN_JOB = Pattern.compile("^/jobs/view/(?:[^/]*-)?(\\d+)");
+        private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+        static String canonicalUrl(String url) {
+            String trimmed = url.trim();
+            URI uri;
+            try {
+                uri = new URI(trimmed);
+            } catch (URISyntaxException e) {
+                return stripQuery(trimmed);
+            }
+            if (uri.getHost() == null) {
+                return stripQuery(trimmed);
+            }
+
+            String host = uri.getHost().toLowerCase(Locale.ROOT);
+            String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+            if (path.length() > 1 && path.endsWith("/")) {
+                path = path.substring(0, path.length() - 1);
+            }
+            String scheme = uri.getScheme() == null ? "https" : uri.getScheme().toLowerCase(Locale.ROOT);
+            boolean defaultPort = uri.getPort() < 0 || (scheme.equals("http") && uri.getPort() == 80)
+                    || (scheme.equals("https") && uri.getPort() == 443);
+            String port = defaultPort ? "" : ":" + uri.getPort();
+
+            // Greenhouse boards embedded on a company's own careers page carry the job as gh_jid
+            String ghJid = GREENHOUSE_JOB_PATH.matcher(path).matches() ? null : queryParam(uri, "gh_jid");
+            if (host.equals("indeed.com") || host.endsWith(".indeed.com")) {
+                String jk = queryParam(uri, "jk");
+                if (jk == null) {
+                    jk = queryParam(uri, "vjk");
+                }
+                if (jk != null) {
+                    return "https://www.indeed.com/viewjob?jk=" + jk;
+                }
+                host = "www.indeed.com";
+            } else if (host.equals("linkedin.com") || host.endsWith(".linkedin.com")) {
+                Matcher job = LINKEDIN_JOB.matcher(path);
+                if (job.find()) {
+                    return "https://www.linkedin.com/jobs/view/" + job.group(1);
+                }
+                host = "www.linkedin.com";
+            } else if (ghJid != null) {
+                return scheme + "://" + host + port + path + "?gh_jid=" + ghJid;
+            } else if (host.contains("glassdoor.")) {
+                String jl = queryParam(uri, "jl");
+                if (jl != null) {
+                    return scheme + "://" + host + port + path + "?jl=" + jl;
+                }
+            }
+            return scheme + "://" + host + port + path;
+        }
+
+        // The source's own id for the job behind a canonical URL, e.g. "indeed.com:1a2b3c", or null
+        static String nativeId(String canonicalUrl) {
+            URI uri;
+            try {
+                uri = new URI(canonicalUrl);
+            } catch (URISyntaxException e) {
+                return null;
+            }
+            String host = uri.getHost() == null ? "" : uri.getHost();
+            String pathAndQuery = (uri.getRawPath() == null ? "" : uri.getRawPath())
+                    + (uri.getRawQuery() == null ? "" : "?" + uri.getRawQuery());
+            Matcher embedded = GH_JID.matcher(pathAndQuery);
+            if (embedded.find()) {
+                return "greenhouse.io:" + embedded.group(1);
+            }
+            for (Map.Entry<String, Pattern> source : NATIVE_IDS.entrySet()) {
+                if (host.equals(source.getKey()) || host.endsWith("." + source.getKey())) {
+                    Matcher id = source.getValue().matcher(pathAndQuery);
+                    return id.find() ? source.getKey() + ":" + id.group(1) : null;
+                }
+            }
+            return null;
+        }
+
+        // Expects the URL to be canonical already
+        static long jobKey(String canonicalUrl, String title, String company) {
+            String nativeId = nativeId(canonicalUrl);
+            if (nativeId != null) {
+                return hash64("id:" + nativeId);
+            }
+            return hash64("url:" + canonicalUrl + "\u0000" + normalize(title) + "\u0000" + normalize(company));
+        }
+
+        static long contentKey(String title, String company) {
+            return hash64(normalize(title) + "\u0000" + normalize(company));
+        }
+
+        // FNV-1a over UTF-8 bytes, finished with a murmur3 fmix64
+        static long hash64(String text) {
+            long h = 0xcbf29ce484222325L;
+            for (byte b : text.getBytes(StandardCharsets.UTF_8)) {
+                h ^= b;
+                h *= 0x100000001b3L;
+            }
+            return mix64(h);
+        }
+
+        static long mix64(long h) {
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            h *= 0xc4ceb93fe1a85a2dL;
+            h ^= h >>> 33;
+            return h;
+        }
+
+        private static String normalize(String text) {
+            return text == null ? "" : WHITESPACE.matcher(text.trim().toLowerCase(Locale.ROOT)).replaceAll(" ");
+        }
+
+        private static String queryParam(URI uri, String name) {
+            String query = uri.getRawQuery();
+            if (query == null) {
+                return null;
+            }
+            for (String pair : query.split("&")) {
+                int eq = pair.indexOf('=');
+                if (eq > 0 && pair.substring(0, eq).equals(name) && eq < pair.length() - 1) {
+                    return pair.substring(eq + 1);
+                }
+            }
+            return null;
+        }
+
+        private static String stripQuery(String url) {
+            int end = url.length();
+            int query = url.indexOf('?');
+            int fragment = url.indexOf('#');
+            if (query >= 0) {
+                end = query;
+            }
+            if (fragment >= 0 && fragment < end) {
+                end = fragment;
+            }
+            return url.substring(0, end);
+        }
+    }
+}
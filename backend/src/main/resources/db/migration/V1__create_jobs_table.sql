@@ -0,0 +1,13 @@
+-- Initial schema, matching what Hibernate's ddl-auto=update used to create for the Job entity
+CREATE TABLE IF NOT EXISTS jobs (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    title VARCHAR(500),
+    company VARCHAR(500),
+    location VARCHAR(500),
+    description TEXT,
+    url TEXT,
+    source VARCHAR(255),
+    status VARCHAR(255),
+    posted_at TIMESTAMP,
+    discovered_at TIMESTAMP
+);
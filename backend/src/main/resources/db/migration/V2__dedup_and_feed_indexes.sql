@@ -0,0 +1,27 @@
+-- Indexes for the ingest dedup lookups and the feed query.
+-- Written in SQL that both H2 and Postgres accept.
+
+-- URLs are stored normalized (query string stripped), so a bounded VARCHAR is enough and,
+-- unlike TEXT/CLOB, can be indexed on every database we run on. Postgres refuses the type
+-- change if any value is longer, so older rows with longer URLs are cut to fit first.
+UPDATE jobs SET url = SUBSTRING(url, 1, 2048) WHERE LENGTH(url) > 2048;
+
+-- Older builds could insert the same URL twice when checks raced; keep the first copy. Rows
+-- without a URL are not copies of each other (GROUP BY would lump them together), and the
+-- unique index below allows any number of NULLs.
+DELETE FROM jobs WHERE url IS NOT NULL
+    AND id NOT IN (SELECT MIN(id) FROM jobs WHERE url IS NOT NULL GROUP BY url);
+
+ALTER TABLE jobs ALTER COLUMN url SET DATA TYPE VARCHAR(2048);
+
+-- Rows from before status existed count as NEW; filled in so the feed can filter on plain
+-- equality and use ix_jobs_status_posted_at
+UPDATE jobs SET status = 'NEW' WHERE status IS NULL;
+ALTER TABLE jobs ALTER COLUMN status SET DEFAULT 'NEW';
+
+CREATE UNIQUE INDEX ux_jobs_url ON jobs (url);
+
+CREATE INDEX ix_jobs_title_company ON jobs (title, company);
+
+-- Feed: WHERE status = ? ORDER BY posted_at DESC, id DESC
+CREATE INDEX ix_jobs_status_posted_at ON jobs (status, posted_at DESC, id DESC);
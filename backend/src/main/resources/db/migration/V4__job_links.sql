@@ -0,0 +1,18 @@
+-- Listings of an already stored job found on other sources (see JobClusterIndex).
+-- Their keys take part in dedup exactly like the jobs table's own.
+CREATE TABLE job_links (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    job_id BIGINT NOT NULL REFERENCES jobs (id) ON DELETE CASCADE,
+    source VARCHAR(255),
+    url VARCHAR(2048),
+    job_key BIGINT NOT NULL,
+    content_key BIGINT NOT NULL,
+    discovered_at TIMESTAMP
+);
+
+CREATE UNIQUE INDEX ux_job_links_job_key ON job_links (job_key);
+
+CREATE INDEX ix_job_links_content_key ON job_links (content_key);
+
+-- Links for a page of jobs: WHERE job_id IN (...)
+CREATE INDEX ix_job_links_job_id ON job_links (job_id);
@@ -0,0 +1,9 @@
+-- One row per source; a replica may run the source only while it holds the row's lease
+-- (see ScrapeLeases). next_run_at spaces runs by the source's interval across all replicas.
+CREATE TABLE scrape_leases (
+    source_key VARCHAR(100) PRIMARY KEY,
+    owner VARCHAR(255),
+    locked_until TIMESTAMP,
+    next_run_at TIMESTAMP,
+    last_finished_at TIMESTAMP
+);
@@ -0,0 +1,32 @@
+-- Experience level stored per job (see ExperienceLevel) instead of matched with LIKE over
+-- every description on each feed request. Old rows are classified here with the keyword lists
+-- as they stand today ("internship" and "mid-senior" are covered by "intern" and "senior");
+-- ingest fills the column for new ones.
+ALTER TABLE jobs ADD COLUMN experience VARCHAR(20) DEFAULT 'UNKNOWN' NOT NULL;
+
+UPDATE jobs SET experience = CASE
+    WHEN LOWER(COALESCE(title, '')) LIKE '%intern%' OR LOWER(COALESCE(description, '')) LIKE '%intern%'
+        OR LOWER(COALESCE(title, '')) LIKE '%fresher%' OR LOWER(COALESCE(description, '')) LIKE '%fresher%'
+        OR LOWER(COALESCE(title, '')) LIKE '%graduate%' OR LOWER(COALESCE(description, '')) LIKE '%graduate%'
+        OR LOWER(COALESCE(title, '')) LIKE '%trainee%' OR LOWER(COALESCE(description, '')) LIKE '%trainee%'
+        OR LOWER(COALESCE(title, '')) LIKE '%entry level%' OR LOWER(COALESCE(description, '')) LIKE '%entry level%'
+        OR LOWER(COALESCE(title, '')) LIKE '%junior%' OR LOWER(COALESCE(description, '')) LIKE '%junior%'
+        OR LOWER(COALESCE(title, '')) LIKE '%0-1 year%' OR LOWER(COALESCE(description, '')) LIKE '%0-1 year%'
+        OR LOWER(COALESCE(title, '')) LIKE '%0-2 years%' OR LOWER(COALESCE(description, '')) LIKE '%0-2 years%'
+        THEN 'FRESHER'
+    WHEN LOWER(COALESCE(title, '')) LIKE '%senior%' OR LOWER(COALESCE(description, '')) LIKE '%senior%'
+        OR LOWER(COALESCE(title, '')) LIKE '%lead%' OR LOWER(COALESCE(description, '')) LIKE '%lead%'
+        OR LOWER(COALESCE(title, '')) LIKE '%principal%' OR LOWER(COALESCE(description, '')) LIKE '%principal%'
+        OR LOWER(COALESCE(title, '')) LIKE '%manager%' OR LOWER(COALESCE(description, '')) LIKE '%manager%'
+        OR LOWER(COALESCE(title, '')) LIKE '%architect%' OR LOWER(COALESCE(description, '')) LIKE '%architect%'
+        OR LOWER(COALESCE(title, '')) LIKE '%head%' OR LOWER(COALESCE(description, '')) LIKE '%head%'
+        OR LOWER(COALESCE(title, '')) LIKE '%years experience%' OR LOWER(COALESCE(description, '')) LIKE '%years experience%'
+        THEN 'EXPERIENCED'
+    ELSE 'UNKNOWN'
+END;
+
+-- Keyset pages are ordered by posted_at; rows from builds that left it empty take their discovery time
+UPDATE jobs SET posted_at = COALESCE(discovered_at, CURRENT_TIMESTAMP) WHERE posted_at IS NULL;
+
+-- Feed with the experience filter: WHERE status = ? AND experience = ? ORDER BY posted_at DESC, id DESC
+CREATE INDEX ix_jobs_status_experience_posted_at ON jobs (status, experience, posted_at DESC, id DESC);
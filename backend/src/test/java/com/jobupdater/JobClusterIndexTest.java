@@ -0,0 +1,142 @@
+package com.jobupdater;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+// The clustering rules against one stored job per test, warmed from a migrated H2 database
+class JobClusterIndexTest {
+
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+
+    private JdbcTemplate jdbc;
+    private JobClusterIndex index;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:clusters" + DATABASES.incrementAndGet() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        Flyway.configure().dataSource(dataSource).load().migrate();
+        jdbc = new JdbcTemplate(dataSource);
+        index = new JobClusterIndex(jdbc, new ScraperProperties());
+    }
+
+    @ParameterizedTest(name = "{0} @ {1} matches {2} @ {3}")
+    @CsvSource(delimiter = '|', value = {
+            // Company aliases, legal suffixes and board slugs
+            "Urban Company        | Software Engineer         | Urbancompany           | Software Engineer",
+            "Urban Company        | Software Engineer         | UrbanClap              | Software Engineer",
+            "Acme                 | Software Engineer         | Acme Pvt. Ltd.         | Software Engineer",
+            "Meta                 | Software Engineer         | Facebook               | Software Engineer",
+            // Abbreviations and word order
+            "Acme                 | Senior Software Engineer  | Acme                   | Sr. Software Engineer",
+            "Acme                 | SDE II                    | Acme                   | Software Development Engineer 2",
+            "Acme                 | Frontend Developer        | Acme                   | Front End Developer",
+            "Acme                 | Software Engineer, Backend| Acme                   | Backend Software Engineer",
+    })
+    void sameOpening(String storedCompany, String storedTitle, String company, String title) {
+        long id = store(storedCompany, storedTitle, "Bengaluru", "LinkedIn");
+
+        assertEquals(id, index.match(job(company, title, "Bengaluru", "Naukri"), Collections.emptySet()));
+    }
+
+    @ParameterizedTest(name = "{0} @ {1} stays apart from {2} @ {3}")
+    @CsvSource(delimiter = '|', value = {
+            // Level words must agree
+            "Acme        | Software Engineer          | Acme       | Senior Software Engineer",
+            "Acme        | Software Engineer Intern   | Acme       | Software Engineer",
+            "Acme        | SDE 1                      | Acme       | SDE 2",
+            "Acme        | Software Engineer II       | Acme       | Software Engineer III",
+            // Titles too far apart in SimHash distance
+            "Acme        | Software Engineer          | Acme       | Data Analyst",
+            "Acme        | Backend Developer          | Acme       | Android Developer",
+            // Different companies, and placeholders never cluster
+            "Acme        | Software Engineer          | Acme Labs  | Software Engineer",
+            "Unknown Company | Software Engineer      | Unknown Company | Software Engineer",
+    })
+    void differentOpenings(String storedCompany, String storedTitle, String company, String title) {
+        store(storedCompany, storedTitle, "Bengaluru", "LinkedIn");
+
+        assertNull(index.match(job(company, title, "Bengaluru", "Naukri"), Collections.emptySet()));
+    }
+
+    @ParameterizedTest(name = "{0} vs {1}: {2}")
+    @CsvSource(delimiter = '|', value = {
+            "Bengaluru, Karnataka, India | Bangalore                  | true",
+            "Gurgaon, Haryana             | Gurugram                   | true",
+            "Pune, Maharashtra            | Pune                       | true",
+            // Either side without a city
+            "Pune                         | India                      | true",
+            "Remote                       | Pune                       | true",
+            "Pune                         | Remote - India             | true",
+            "Pune                         | ''                         | true",
+            "Pune, Maharashtra            | Bengaluru, Karnataka       | false",
+            "Mumbai                       | Hyderabad / Remote         | false",
+    })
+    void citiesMustAgreeWhenBothAreKnown(String storedLocation, String location, boolean same) {
+        long id = store("Acme", "Software Engineer", storedLocation, "LinkedIn");
+
+        Long match = index.match(job("Acme", "Software Engineer", location, "Naukri"), Collections.emptySet());
+        assertEquals(same ? Long.valueOf(id) : null, match);
+    }
+
+    @Test
+    void aSourceCountsOnlyOnceItsLinkIsStored() {
+        long id = store("Acme", "Software Engineer", "Pune", "LinkedIn");
+        Job naukri = job("Acme", "Software Engineer", "Pune", "Naukri");
+
+        // Its own source never links to it
+        assertNull(index.match(job("Acme", "Software Engineer", "Pune", "LinkedIn"), Collections.emptySet()));
+        // Matched, but the link row was never stored (e.g. the insert failed): still open to Naukri
+        assertEquals(id, index.match(naukri, Collections.emptySet()));
+        assertEquals(id, index.match(naukri, Collections.emptySet()));
+        // Not twice from one source in the same batch
+        assertNull(index.match(naukri, Set.of(id)));
+
+        index.linked(id, "Naukri");
+        assertNull(index.match(naukri, Collections.emptySet()));
+        assertEquals(id, index.match(job("Acme", "Software Engineer", "Pune", "Indeed"), Collections.emptySet()));
+    }
+
+    @Test
+    void storedLinksAreLoadedWithTheJobs() {
+        long id = store("Acme", "Software Engineer", "Pune", "LinkedIn");
+        jdbc.update("INSERT INTO job_links (job_id, source, url, job_key, content_key, discovered_at) "
+                + "VALUES (?, 'Naukri', 'https://www.naukri.com/job-listings-1', 1, 1, CURRENT_TIMESTAMP)", id);
+
+        assertNull(index.match(job("Acme", "Software Engineer", "Pune", "Naukri"), Collections.emptySet()));
+        assertEquals(id, index.match(job("Acme", "Software Engineer", "Pune", "Indeed"), Collections.emptySet()));
+    }
+
+    // A stored job; the index reads it when it warms on the first match
+    private long store(String company, String title, String location, String source) {
+        Job job = job(company, title, location, source);
+        jdbc.update("INSERT INTO jobs (title, company, location, url, source, status, experience, job_key, content_key) "
+                        + "VALUES (?, ?, ?, ?, ?, 'NEW', 'UNKNOWN', ?, ?)",
+                job.getTitle(), job.getCompany(), job.getLocation(), job.getUrl(), job.getSource(),
+                job.getJobKey(), job.getContentKey());
+        return jdbc.queryForObject("SELECT id FROM jobs WHERE job_key = ?", Long.class, job.getJobKey());
+    }
+
+    private static Job job(String company, String title, String location, String source) {
+        Job job = new Job();
+        job.setCompany(company);
+        job.setTitle(title);
+        job.setLocation(location);
+        job.setSource(source);
+        job.setUrl("https://jobs.example/" + source + "/" + title.hashCode());
+        JobKeys.assign(job);
+        return job;
+    }
+}
@@ -0,0 +1,245 @@
+package com.jobupdater;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Walks the feed page by page over a table full of ties and NULL companies, on H2 as is and in
+// Postgres compatibility mode (where NULLs sort the other way), and checks each walk against
+// the same order computed here
+class JobFeedServiceTest {
+
+    private static final String POSTGRES_MODE = ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH";
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 3, 1, 12, 0);
+    private static final String[] COMPANIES = { "Acme", null, "Globex", "Acme", null, "Initech" };
+
+    private static final Map<String, ConfigurableApplicationContext> CONTEXTS = new HashMap<>();
+
+    @AfterAll
+    static void stop() {
+        CONTEXTS.values().forEach(ConfigurableApplicationContext::close);
+    }
+
+    static Stream<Arguments> sorts() {
+        List<Arguments> cases = new ArrayList<>();
+        for (String mode : new String[] { "", POSTGRES_MODE }) {
+            for (String sort : new String[] { "newest", "oldest", "company" }) {
+                cases.add(Arguments.of(mode, sort));
+            }
+        }
+        return cases.stream();
+    }
+
+    @ParameterizedTest
+    @MethodSource("sorts")
+    void pagesCoverEveryRowOnceInOrder(String mode, String sort) {
+        JobFeedQuery query = new JobFeedQuery();
+        query.setSort(sort);
+        query.setLimit(4);
+
+        assertEquals(expected(mode, sort, row -> true), walk(mode, query));
+    }
+
+    @ParameterizedTest
+    @MethodSource("sorts")
+    void filtersHoldAcrossPages(String mode, String sort) {
+        JobFeedQuery query = new JobFeedQuery();
+        query.setSort(sort);
+        query.setLimit(2);
+        query.setStatus("NEW");
+        query.setSource(List.of("LinkedIn"));
+        query.setQ("jav");
+
+        List<Long> expected = expected(mode, sort, row -> "NEW".equals(row.status) && "LinkedIn".equals(row.source)
+                && row.title.toLowerCase().contains("jav"));
+        assertTrue(expected.size() > 2, "too few rows for more than one page: " + expected);
+        assertEquals(expected, walk(mode, query));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "", POSTGRES_MODE })
+    void searchPagesResumeWhereTheyStopped(String mode) {
+        JobFeedService feed = context(mode).getBean(JobFeedService.class);
+        JobFeedQuery all = new JobFeedQuery();
+        all.setQ("engineer");
+        all.setStatus("NEW");
+        all.setSource(List.of("Naukri"));
+        all.setLimit(JobFeedQuery.MAX_LIMIT);
+        List<Long> ranked = ids(feed.search(all).getItems());
+        assertTrue(ranked.size() > 3, "too few rows for more than one page: " + ranked);
+
+        JobFeedQuery paged = new JobFeedQuery();
+        paged.setQ("engineer");
+        paged.setStatus("NEW");
+        paged.setSource(List.of("Naukri"));
+        paged.setLimit(3);
+        List<Long> walked = new ArrayList<>();
+        JobPage<JobSummary> page;
+        do {
+            page = feed.search(paged);
+            walked.addAll(ids(page.getItems()));
+            paged.setCursor(page.getNextCursor());
+        } while (page.getNextCursor() != null);
+        assertEquals(ranked, walked);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "", POSTGRES_MODE })
+    void invalidCursorsAreBadRequests(String mode) throws Exception {
+        JobFeedService feed = context(mode).getBean(JobFeedService.class);
+        for (String cursor : List.of("not base64!", cursor("twelve\nAcme"), cursor("12\nyesterday"),
+                cursor("12\n" + NOW + "x"))) {
+            JobFeedQuery query = limit(5, "newest");
+            query.setCursor(cursor);
+            ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> feed.findPage(query),
+                    "cursor " + cursor);
+            assertEquals(HttpStatus.BAD_REQUEST, e.getStatus());
+        }
+        // A search cursor is a position in the ranked list; only the number is read
+        for (String cursor : List.of("not base64!", cursor("twelve\nrank"))) {
+            JobFeedQuery query = limit(5, "newest");
+            query.setQ("engineer");
+            query.setCursor(cursor);
+            ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> feed.search(query),
+                    "cursor " + cursor);
+            assertEquals(HttpStatus.BAD_REQUEST, e.getStatus());
+        }
+
+        // Over HTTP: 400 rather than a server error
+        String newest = feed.findPage(limit(1, "newest")).getNextCursor();
+        assertEquals(400, get(mode, "/api/jobs?sort=newest&cursor=" + URLEncoder.encode("%%%", StandardCharsets.UTF_8)));
+        assertEquals(400, get(mode, "/api/jobs?sort=newest&cursor=" + cursor("7\nAcme")));
+        assertEquals(400, get(mode, "/api/jobs/search?q=engineer&cursor=" + cursor("seven\nrank")));
+        assertEquals(200, get(mode, "/api/jobs?sort=newest&cursor=" + newest));
+        // Any text is a valid company, so a newest cursor under sort=company just resumes after that text
+        assertEquals(200, get(mode, "/api/jobs?sort=company&cursor=" + newest));
+    }
+
+    // Follows nextCursor to the end and returns the ids in the order served
+    private List<Long> walk(String mode, JobFeedQuery query) {
+        JobFeedService feed = context(mode).getBean(JobFeedService.class);
+        List<Long> walked = new ArrayList<>();
+        JobPage<JobSummary> page;
+        do {
+            page = feed.findPage(query);
+            assertFalse(page.getItems().isEmpty() && page.getNextCursor() != null, "empty page with a cursor");
+            assertTrue(page.getItems().size() <= query.effectiveLimit());
+            walked.addAll(ids(page.getItems()));
+            query.setCursor(page.getNextCursor());
+        } while (page.getNextCursor() != null);
+        assertEquals(walked.size(), new HashSet<>(walked).size(), "served twice: " + walked);
+        return walked;
+    }
+
+    private List<Long> expected(String mode, String sort, Predicate<Row> filter) {
+        Comparator<Row> order;
+        if (sort.equals("company")) {
+            order = Comparator.comparing((Row row) -> row.company, Comparator.nullsLast(Comparator.naturalOrder()))
+                    .thenComparing(row -> row.id);
+        } else if (sort.equals("oldest")) {
+            order = Comparator.comparing((Row row) -> row.postedAt).thenComparing(row -> row.id);
+        } else {
+            order = Comparator.comparing((Row row) -> row.postedAt).thenComparing(row -> row.id).reversed();
+        }
+        return rows(mode).stream().filter(filter).sorted(order).map(row -> row.id).collect(Collectors.toList());
+    }
+
+    private List<Row> rows(String mode) {
+        return context(mode).getBean(JdbcTemplate.class).query(
+                "SELECT id, title, company, source, status, posted_at FROM jobs",
+                (rs, i) -> new Row(rs.getLong("id"), rs.getString("title"), rs.getString("company"),
+                        rs.getString("source"), rs.getString("status"), rs.getTimestamp("posted_at").toLocalDateTime()));
+    }
+
+    // One replica per database mode, seeded once: 4 posting times and 4 companies (one NULL) over 30 rows
+    private static ConfigurableApplicationContext context(String mode) {
+        return CONTEXTS.computeIfAbsent(mode, key -> {
+            ConfigurableApplicationContext context = new SpringApplicationBuilder(JobUpdaterApplication.class).run(
+                    "--server.port=0",
+                    "--spring.datasource.url=jdbc:h2:mem:feed" + key.length() + ";DB_CLOSE_DELAY=-1" + key,
+                    "--scraper.cluster.scrape=false");
+            JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+            for (int i = 0; i < 30; i++) {
+                jdbc.update("INSERT INTO jobs (title, company, url, source, status, experience, job_key, content_key, "
+                                + "posted_at, discovered_at) VALUES (?, ?, ?, ?, ?, 'UNKNOWN', ?, ?, ?, ?)",
+                        (i % 3 == 0 ? "Data Engineer " : "Java Engineer ") + i,
+                        COMPANIES[i % COMPANIES.length],
+                        "https://jobs.example/" + i,
+                        i % 2 == 0 ? "LinkedIn" : "Naukri",
+                        i % 5 == 0 ? "APPLIED" : "NEW",
+                        1000L + i, 2000L + i,
+                        NOW.minusHours(i % 4), NOW);
+            }
+            return context;
+        });
+    }
+
+    private static int get(String mode, String path) throws Exception {
+        String port = context(mode).getEnvironment().getProperty("local.server.port");
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build();
+        return HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private static JobFeedQuery limit(int limit, String sort) {
+        JobFeedQuery query = new JobFeedQuery();
+        query.setLimit(limit);
+        query.setSort(sort);
+        return query;
+    }
+
+    private static String cursor(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<Long> ids(List<JobSummary> items) {
+        return items.stream().map(JobSummary::getId).collect(Collectors.toList());
+    }
+
+    private static class Row {
+        final long id;
+        final String title;
+        final String company;
+        final String source;
+        final String status;
+        final LocalDateTime postedAt;
+
+        Row(long id, String title, String company, String source, String status, LocalDateTime postedAt) {
+            this.id = id;
+            this.title = title;
+            this.company = company;
+            this.source = source;
+            this.status = status;
+            this.postedAt = postedAt;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.jobupdater;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class JobKeysTest {
+
+    // Scraped URL, canonical URL, native id (null for none); FrozenKeysTest runs the same URLs
+    static Stream<Arguments> cases() {
+        return Stream.of(
+                // Indeed: jk or vjk on any country or mobile host
+                Arguments.of("https://in.indeed.com/viewjob?jk=1a2b3c4d&from=serp&vjs=3",
+                        "https://www.indeed.com/viewjob?jk=1a2b3c4d", "indeed.com:1a2b3c4d"),
+                Arguments.of("https://m.indeed.com/viewjob?jk=1a2b3c4d",
+                        "https://www.indeed.com/viewjob?jk=1a2b3c4d", "indeed.com:1a2b3c4d"),
+                Arguments.of("https://in.indeed.com/jobs?q=java&l=Bengaluru&vjk=5e6f7a8b",
+                        "https://www.indeed.com/viewjob?jk=5e6f7a8b", "indeed.com:5e6f7a8b"),
+                Arguments.of("https://m.indeed.com/jobs?q=java&vjk=5e6f7a8b",
+                        "https://www.indeed.com/viewjob?jk=5e6f7a8b", "indeed.com:5e6f7a8b"),
+                Arguments.of("https://in.indeed.com/cmp/Acme/jobs?from=serp",
+                        "https://www.indeed.com/cmp/Acme/jobs", null),
+                // LinkedIn: title slugs, country hosts and tracking parameters go
+                Arguments.of("https://in.linkedin.com/jobs/view/senior-java-developer-at-acme-3912345678?refId=x&trk=y",
+                        "https://www.linkedin.com/jobs/view/3912345678", "linkedin.com:3912345678"),
+                Arguments.of("https://www.linkedin.com/jobs/view/3912345678/",
+                        "https://www.linkedin.com/jobs/view/3912345678", "linkedin.com:3912345678"),
+                Arguments.of("https://linkedin.com/jobs/view/java-developer-3912345678",
+                        "https://www.linkedin.com/jobs/view/3912345678", "linkedin.com:3912345678"),
+                Arguments.of("https://in.linkedin.com/company/acme?trk=x",
+                        "https://www.linkedin.com/company/acme", null),
+                // Greenhouse: the board's own job page, and gh_jid on a careers page embedding the board
+                Arguments.of("https://boards.greenhouse.io/acme/jobs/4012345?gh_src=abc",
+                        "https://boards.greenhouse.io/acme/jobs/4012345", "greenhouse.io:4012345"),
+                Arguments.of("https://boards.greenhouse.io/acme/jobs/4012345?gh_jid=4012345",
+                        "https://boards.greenhouse.io/acme/jobs/4012345", "greenhouse.io:4012345"),
+                Arguments.of("https://www.acme.com/careers/?gh_jid=4012345&gh_src=abc#app",
+                        "https://www.acme.com/careers?gh_jid=4012345", "greenhouse.io:4012345"),
+                Arguments.of("https://boards.greenhouse.io/acme?gh_jid=4012345",
+                        "https://boards.greenhouse.io/acme?gh_jid=4012345", "greenhouse.io:4012345"),
+                // Glassdoor: jl kept, country domains kept apart
+                Arguments.of("https://www.glassdoor.co.in/job-listing/java-developer-acme-JV_IC2940587.htm?jl=1009876543&src=GD_JOB_AD",
+                        "https://www.glassdoor.co.in/job-listing/java-developer-acme-JV_IC2940587.htm?jl=1009876543", "glassdoor.co.in:1009876543"),
+                Arguments.of("https://www.glassdoor.com/job-listing/java-developer-acme-JV_IC2940587.htm?jl=1009876543",
+                        "https://www.glassdoor.com/job-listing/java-developer-acme-JV_IC2940587.htm?jl=1009876543", "glassdoor.com:1009876543"),
+                Arguments.of("https://www.glassdoor.co.in/Job/java-jobs-SRCH_KO0,4.htm?src=x",
+                        "https://www.glassdoor.co.in/Job/java-jobs-SRCH_KO0,4.htm", null),
+                // Other sources: trailing slashes, fragments, tracking parameters, host case and default ports
+                Arguments.of("https://jobs.lever.co/acme/0f1e2d3c-4b5a-6978-8899-aabbccddeeff/#apply",
+                        "https://jobs.lever.co/acme/0f1e2d3c-4b5a-6978-8899-aabbccddeeff", "lever.co:0f1e2d3c-4b5a-6978-8899-aabbccddeeff"),
+                Arguments.of("https://www.naukri.com/job-listings-java-developer-acme-bengaluru-3-to-5-years-120324012345?src=jobsearchDesk",
+                        "https://www.naukri.com/job-listings-java-developer-acme-bengaluru-3-to-5-years-120324012345", "naukri.com:120324012345"),
+                Arguments.of("https://www.instahyre.com/job-281234-java-developer-at-acme-bangalore/",
+                        "https://www.instahyre.com/job-281234-java-developer-at-acme-bangalore", "instahyre.com:281234"),
+                Arguments.of("https://wellfound.com/jobs/2912345-java-developer?utm_source=x",
+                        "https://wellfound.com/jobs/2912345-java-developer", "wellfound.com:2912345"),
+                Arguments.of("HTTPS://Careers.Acme.COM:443/jobs/?utm_source=x#top",
+                        "https://careers.acme.com/jobs", null),
+                Arguments.of("http://careers.acme.com:8080/",
+                        "http://careers.acme.com:8080/", null),
+                // Not parsable as a URI: query and fragment cut off as text, no native id
+                Arguments.of("https://acme.com/jobs/java developer?ref=x#top",
+                        "https://acme.com/jobs/java developer", null),
+                Arguments.of("/jobs/123?ref=x",
+                        "/jobs/123", null));
+    }
+
+    @ParameterizedTest
+    @MethodSource("cases")
+    void canonicalizes(String url, String canonical, String nativeId) {
+        assertEquals(canonical, JobKeys.canonicalUrl(url));
+        assertEquals(nativeId, JobKeys.nativeId(canonical));
+        // Canonical URLs are a fixed point
+        assertEquals(canonical, JobKeys.canonicalUrl(canonical));
+    }
+
+    @Test
+    void theSameNativeIdIsTheSameJob() {
+        Job desktop = job("https://in.indeed.com/viewjob?jk=1a2b3c4d", "Java Developer");
+        Job mobile = job("https://m.indeed.com/jobs?vjk=1a2b3c4d", "Java Developer (Remote)");
+        assertEquals(JobKeys.jobKey(desktop), JobKeys.jobKey(mobile));
+        assertNotEquals(desktop.getContentKey(), mobile.getContentKey());
+    }
+
+    @Test
+    void withoutANativeIdTitleAndCompanyTellJobsApart() {
+        // Some sources link every job to one apply page
+        Job first = job("https://careers.acme.com/apply", "Java Developer");
+        Job second = job("https://careers.acme.com/apply", "Data Engineer");
+        assertNotEquals(first.getJobKey(), second.getJobKey());
+        assertEquals(first.getJobKey(), job("https://careers.acme.com/apply/", " java  DEVELOPER ").getJobKey());
+    }
+
+    @Test
+    void contentKeyIgnoresCaseAndSpacing() {
+        assertEquals(JobKeys.contentKey("Java Developer", "Acme"), JobKeys.contentKey("  java   developer ", "ACME"));
+        assertNotEquals(JobKeys.contentKey("Java Developer", "Acme"), JobKeys.contentKey("Java Developer", "Acme Labs"));
+    }
+
+    private static Job job(String url, String title) {
+        Job job = new Job();
+        job.setUrl(JobKeys.canonicalUrl(url));
+        job.setTitle(title);
+        job.setCompany("Acme");
+        JobKeys.assign(job);
+        return job;
+    }
+}
@@ -0,0 +1,99 @@
+package com.jobupdater;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The Flyway migrations on H2, as is and in Postgres compatibility mode, starting from a V1
+// database that holds the kind of rows older builds left behind
+class MigrationsTest {
+
+    private static final String POSTGRES_MODE = ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH";
+
+    @ParameterizedTest
+    @ValueSource(strings = { "", POSTGRES_MODE })
+    void migratesAnOldDatabase(String mode) throws Exception {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:migrations" + mode.length() + ";DB_CLOSE_DELAY=-1" + mode, "sa", "");
+        Flyway.configure().dataSource(dataSource).target("1").load().migrate();
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        String longUrl = "https://jobs.example/" + "a".repeat(3000);
+        jdbc.update("INSERT INTO jobs (title, company, url, status) VALUES ('Engineer', 'Acme', ?, NULL)", longUrl);
+        jdbc.update("INSERT INTO jobs (title, company, url, status) VALUES ('Engineer', 'Acme', 'https://jobs.example/1', 'NEW')");
+        jdbc.update("INSERT INTO jobs (title, company, url, status) VALUES ('Engineer', 'Acme', 'https://jobs.example/1', 'NEW')");
+        jdbc.update("INSERT INTO jobs (title, company, url, status) VALUES ('Tester', 'Acme', 'https://jobs.example/2', NULL)");
+        jdbc.update("INSERT INTO jobs (title, company, url, description) VALUES ('Senior Tester', 'Acme', 'https://jobs.example/3', 'Junior welcome')");
+        jdbc.update("INSERT INTO jobs (title, company, url) VALUES ('Designer', 'Acme', NULL)");
+        jdbc.update("INSERT INTO jobs (title, company, url) VALUES ('Writer', 'Acme', NULL)");
+        // Nothing says these two are the same job; V3 keys each row without a URL on its own
+        jdbc.update("INSERT INTO jobs (title, company, url) VALUES ('Writer', 'Acme', NULL)");
+
+        Flyway flyway = Flyway.configure().dataSource(dataSource).load();
+        flyway.migrate();
+
+        assertTrue(flyway.info().pending().length == 0);
+        assertEquals(7, jdbc.queryForObject("SELECT COUNT(*) FROM jobs", Integer.class));
+        assertEquals(3, jdbc.queryForObject("SELECT COUNT(*) FROM jobs WHERE url IS NULL", Integer.class));
+        assertEquals(0, jdbc.queryForObject("SELECT COUNT(*) FROM jobs WHERE status IS NULL", Integer.class));
+        assertEquals(0, jdbc.queryForObject("SELECT COUNT(*) FROM jobs WHERE posted_at IS NULL", Integer.class));
+        // Classified the way ExperienceLevel does it; fresher keywords win
+        assertEquals("FRESHER", jdbc.queryForObject(
+                "SELECT experience FROM jobs WHERE url = 'https://jobs.example/3'", String.class));
+        assertEquals(6, jdbc.queryForObject("SELECT COUNT(*) FROM jobs WHERE experience = 'UNKNOWN'", Integer.class));
+        assertTrue(jdbc.queryForObject("SELECT MAX(LENGTH(url)) FROM jobs", Integer.class) <= 2048);
+
+        Set<String> indexes = indexes(dataSource, "jobs");
+        assertTrue(indexes.contains("ux_jobs_job_key"), indexes.toString());
+        assertTrue(indexes.contains("ix_jobs_content_key"), indexes.toString());
+        assertTrue(indexes.contains("ix_jobs_status_posted_at"), indexes.toString());
+        assertTrue(indexes.contains("ix_jobs_status_experience_posted_at"), indexes.toString());
+        Set<String> linkIndexes = indexes(dataSource, "job_links");
+        assertTrue(linkIndexes.contains("ux_job_links_job_key"), linkIndexes.toString());
+        assertTrue(linkIndexes.contains("ix_job_links_content_key"), linkIndexes.toString());
+        assertTrue(linkIndexes.contains("ix_job_links_job_id"), linkIndexes.toString());
+
+        // The queries the indexes exist for actually use them
+        assertUses(jdbc, "ix_jobs_status_posted_at",
+                "SELECT id FROM jobs WHERE status = 'NEW' ORDER BY posted_at DESC, id DESC LIMIT 20");
+        assertUses(jdbc, "ix_jobs_status_experience_posted_at", "SELECT id FROM jobs WHERE status = 'NEW'"
+                + " AND experience = 'FRESHER' ORDER BY posted_at DESC, id DESC LIMIT 20");
+        assertUses(jdbc, "ux_jobs_job_key", "SELECT id FROM jobs WHERE job_key IN (1, 2, 3)");
+        assertUses(jdbc, "ix_jobs_content_key", "SELECT id FROM jobs WHERE content_key IN (1, 2, 3)");
+        assertUses(jdbc, "ux_job_links_job_key", "SELECT id FROM job_links WHERE job_key IN (1, 2, 3)");
+        // job_links.job_id is not checked: H2 serves it from the index it creates for the foreign key
+    }
+
+    private static Set<String> indexes(DriverManagerDataSource dataSource, String table) throws Exception {
+        Set<String> names = new HashSet<>();
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData meta = connection.getMetaData();
+            for (String name : new String[] { table, table.toUpperCase(Locale.ROOT) }) {
+                try (ResultSet rs = meta.getIndexInfo(null, null, name, false, false)) {
+                    while (rs.next()) {
+                        if (rs.getString("INDEX_NAME") != null) {
+                            names.add(rs.getString("INDEX_NAME").toLowerCase(Locale.ROOT));
+                        }
+                    }
+                }
+            }
+        }
+        return names;
+    }
+
+    private static void assertUses(JdbcTemplate jdbc, String index, String sql) {
+        String plan = jdbc.queryForObject("EXPLAIN " + sql, String.class);
+        assertTrue(plan.toLowerCase(Locale.ROOT).contains(index), plan);
+    }
+}
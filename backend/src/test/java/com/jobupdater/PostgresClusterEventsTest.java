@@ -0,0 +1,173 @@
+package com.jobupdater;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+// The listener thread against scripted connections; there is no Postgres server here, so the
+// connections are mocks that hand out queued notifications or fail on cue
+class PostgresClusterEventsTest {
+
+    private static final long MIN_BACKOFF = 100;
+    private static final long MAX_BACKOFF = 300;
+
+    private final JdbcTemplate pool = mock(JdbcTemplate.class);
+    private final List<Long> attempts = Collections.synchronizedList(new ArrayList<>());
+    private final BlockingQueue<Object> script = new LinkedBlockingQueue<>();
+    private PostgresClusterEvents events;
+
+    @AfterEach
+    void stop() {
+        if (events != null) {
+            events.shutdown();
+        }
+    }
+
+    @Test
+    void listensOnItsOwnConnectionAndHandsEventsOn() throws Exception {
+        Listening connection = new Listening();
+        script.add(connection);
+        BlockingQueue<String> received = start();
+
+        connection.notify("other jobs 1,2,3");
+        connection.notify("self jobs 4");
+        connection.notify("other status {}");
+        assertEquals("other 1,2,3", received.poll(5, TimeUnit.SECONDS));
+        // Only LISTEN and polling; nothing is borrowed from the pool
+        verify(connection.statement, timeout(5000)).execute("LISTEN job_updater_events");
+        verifyNoInteractions(pool);
+        assertEquals(1, events.eventEpoch());
+        assertEquals(1, attempts.size());
+    }
+
+    @Test
+    void reconnectsWithGrowingPauses() throws Exception {
+        script.add(new SQLException("connection refused"));
+        script.add(new SQLException("connection refused"));
+        script.add(new SQLException("connection refused"));
+        script.add(new SQLException("connection refused"));
+        Listening first = new Listening();
+        script.add(first);
+        BlockingQueue<String> received = start();
+
+        first.notify("other jobs 1");
+        assertEquals("other 1", received.poll(5, TimeUnit.SECONDS));
+        List<Long> gaps = gaps();
+        assertEquals(4, gaps.size(), "gaps " + gaps);
+        assertTrue(gaps.get(0) >= MIN_BACKOFF && gaps.get(1) >= 2 * MIN_BACKOFF, "gaps " + gaps);
+        // Capped
+        assertTrue(gaps.get(2) >= MAX_BACKOFF && gaps.get(3) < 3 * MAX_BACKOFF, "gaps " + gaps);
+        assertEquals(1, events.eventEpoch());
+
+        // The connection breaks: events may be missed until the next one is listening, and the
+        // pause starts over from the minimum
+        Listening second = new Listening();
+        script.add(second);
+        first.fail();
+        verify(first.connection, timeout(5000)).close();
+        second.notify("other jobs 2");
+        assertEquals("other 2", received.poll(5, TimeUnit.SECONDS));
+        assertEquals(2, events.eventEpoch());
+        long gap = gaps().get(4);
+        assertTrue(gap >= MIN_BACKOFF && gap < MAX_BACKOFF, "gaps " + gaps());
+    }
+
+    @Test
+    void epochIsUnsetWhileDisconnected() throws Exception {
+        Listening connection = new Listening();
+        script.add(connection);
+        BlockingQueue<String> received = start();
+        connection.notify("other jobs 1");
+        assertEquals("other 1", received.poll(5, TimeUnit.SECONDS));
+        assertEquals(1, events.eventEpoch());
+
+        // Nothing more scripted: every reconnect fails
+        connection.fail();
+        verify(connection.connection, timeout(5000)).close();
+        long end = System.currentTimeMillis() + 5000;
+        while (events.eventEpoch() != -1 && System.currentTimeMillis() < end) {
+            Thread.sleep(10);
+        }
+        assertEquals(-1, events.eventEpoch());
+    }
+
+    // Starts the listener with a JOBS handler; events arrive as "node payload"
+    private BlockingQueue<String> start() {
+        ScraperProperties properties = new ScraperProperties();
+        properties.getCluster().setNodeId("self");
+        events = new PostgresClusterEvents(() -> {
+            attempts.add(System.currentTimeMillis());
+            Object next = script.poll();
+            if (next instanceof Listening) {
+                return ((Listening) next).connection;
+            }
+            throw next == null ? new SQLException("connection refused") : (SQLException) next;
+        }, MIN_BACKOFF, MAX_BACKOFF, pool, properties, new SimpleMeterRegistry());
+        BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        events.subscribe(ClusterEvents.JOBS, (node, payload) -> received.add(node + " " + payload));
+        events.start();
+        return received;
+    }
+
+    private List<Long> gaps() {
+        List<Long> gaps = new ArrayList<>();
+        synchronized (attempts) {
+            for (int i = 1; i < attempts.size(); i++) {
+                gaps.add(attempts.get(i) - attempts.get(i - 1));
+            }
+        }
+        return gaps;
+    }
+
+    // A Postgres connection that has run LISTEN; notifications are handed out as they are queued
+    private static class Listening {
+        final Connection connection = mock(Connection.class);
+        final Statement statement = mock(Statement.class);
+        private final BlockingQueue<Object> incoming = new LinkedBlockingQueue<>();
+
+        Listening() throws SQLException {
+            PGConnection pg = mock(PGConnection.class);
+            when(connection.unwrap(PGConnection.class)).thenReturn(pg);
+            when(connection.createStatement()).thenReturn(statement);
+            when(pg.getNotifications(anyInt())).thenAnswer(invocation -> {
+                Object next = incoming.poll(invocation.<Integer>getArgument(0), TimeUnit.MILLISECONDS);
+                if (next instanceof SQLException) {
+                    throw (SQLException) next;
+                }
+                return next == null ? null : new PGNotification[] { (PGNotification) next };
+            });
+        }
+
+        void notify(String message) {
+            PGNotification notification = mock(PGNotification.class);
+            when(notification.getParameter()).thenReturn(message);
+            incoming.add(notification);
+        }
+
+        void fail() {
+            incoming.add(new SQLException("An I/O error occurred while sending to the backend."));
+        }
+    }
+}
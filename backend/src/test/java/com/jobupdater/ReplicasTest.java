@@ -0,0 +1,113 @@
+package com.jobupdater;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Two replicas in one JVM sharing one H2 database; LocalClusterEvents connects them the way
+// Postgres LISTEN/NOTIFY does across processes. Neither scrapes on its own.
+class ReplicasTest {
+
+    private ConfigurableApplicationContext first;
+    private ConfigurableApplicationContext second;
+
+    @BeforeEach
+    void start() {
+        String database = "jdbc:h2:mem:replicas" + System.nanoTime() + ";DB_CLOSE_DELAY=-1";
+        first = replica(database, "first");
+        second = replica(database, "second");
+    }
+
+    @AfterEach
+    void stop() {
+        if (second != null) {
+            second.close();
+        }
+        if (first != null) {
+            first.close();
+        }
+    }
+
+    @Test
+    void jobsSavedOnOneReplicaReachTheOthersIndexes() throws Exception {
+        // Built before the job exists, so only the event can bring it in
+        assertTrue(second.getBean(JobSearchIndex.class).search("platform").isEmpty());
+
+        IngestQueue.Run run = first.getBean(IngestQueue.class).startRun("Acme");
+        run.add(job("Platform Engineer", "https://acme.example/jobs/1"));
+        assertEquals(1, run.finish());
+        Long id = first.getBean(JdbcTemplate.class).queryForObject("SELECT id FROM jobs", Long.class);
+
+        List<Long> found = Collections.emptyList();
+        for (int i = 0; i < 100 && found.isEmpty(); i++) {
+            Thread.sleep(100);
+            found = second.getBean(JobSearchIndex.class).search("platform");
+        }
+        assertEquals(Collections.singletonList(id), found);
+
+        Job sameJob = job("Platform Engineer", "https://acme.example/jobs/1");
+        JobKeys.assign(sameJob);
+        assertEquals(SeenJobIndex.Verdict.KNOWN, second.getBean(SeenJobIndex.class).check(sameJob));
+    }
+
+    @Test
+    void aListingTheOtherReplicaLinkedIsNotSavedAgain() throws Exception {
+        IngestQueue.Run run = first.getBean(IngestQueue.class).startRun("Acme");
+        run.add(job("Data Engineer", "https://acme.example/jobs/2"));
+        assertEquals(1, run.finish());
+
+        // Another source's copy (company spelled differently, so a different content key) becomes a link
+        Job listing = naukriListing();
+        assertTrue(first.getBean(JobIngestor.class).ingest(Collections.singletonList(listing)).isEmpty());
+        assertEquals(1, first.getBean(JdbcTemplate.class).queryForObject("SELECT COUNT(*) FROM job_links", Integer.class));
+
+        // Known on the other replica once the link's event arrives, without a database check
+        Job again = naukriListing();
+        JobKeys.assign(again);
+        SeenJobIndex.Verdict verdict = null;
+        for (int i = 0; i < 100 && verdict != SeenJobIndex.Verdict.KNOWN; i++) {
+            Thread.sleep(100);
+            verdict = second.getBean(SeenJobIndex.class).check(again);
+        }
+        assertEquals(SeenJobIndex.Verdict.KNOWN, verdict);
+        assertTrue(second.getBean(JobIngestor.class).ingest(Collections.singletonList(again)).isEmpty());
+        assertEquals(1, second.getBean(JdbcTemplate.class).queryForObject(
+                "SELECT COUNT(*) FROM jobs WHERE title = 'Data Engineer'", Integer.class));
+    }
+
+    private static ConfigurableApplicationContext replica(String database, String nodeId) {
+        return new SpringApplicationBuilder(JobUpdaterApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=" + database,
+                "--scraper.cluster.scrape=false",
+                "--scraper.cluster.node-id=" + nodeId,
+                "--scraper.broadcast.window=50ms");
+    }
+
+    private static Job job(String title, String url) {
+        Job job = new Job();
+        job.setTitle(title);
+        job.setCompany("Acme");
+        job.setLocation("Bengaluru");
+        job.setDescription("Build the platform.");
+        job.setUrl(url);
+        job.setSource("Acme");
+        return job;
+    }
+
+    private static Job naukriListing() {
+        Job job = job("Data Engineer", "https://www.naukri.com/job-listings-data-engineer-acme-bengaluru-2");
+        job.setCompany("Acme Pvt Ltd");
+        job.setSource("Naukri");
+        return job;
+    }
+}
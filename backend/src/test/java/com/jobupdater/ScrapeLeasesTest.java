@@ -0,0 +1,182 @@
+package com.jobupdater;
+
+import com.jobupdater.scraper.ScraperStrategy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Two replicas in one JVM on one H2 file, taking scrape leases on a stub source. Neither runs
+// the real scrapers; the tests drive the scheduler's polling by hand.
+class ScrapeLeasesTest {
+
+    private static final Duration INTERVAL = Duration.ofSeconds(2);
+    private static final Duration TTL = Duration.ofSeconds(3);
+
+    @TempDir
+    Path dir;
+
+    private ConfigurableApplicationContext first;
+    private ConfigurableApplicationContext second;
+
+    @BeforeEach
+    void start() {
+        String database = "jdbc:h2:file:" + dir.resolve("leases").toAbsolutePath();
+        first = replica(database, "first");
+        second = replica(database, "second");
+    }
+
+    @AfterEach
+    void stop() {
+        if (second != null) {
+            second.close();
+        }
+        if (first != null) {
+            first.close();
+        }
+    }
+
+    @Test
+    void aSourceRunsOncePerIntervalAcrossReplicas() throws Exception {
+        StubScraper stub = new StubScraper(Duration.ofMillis(100));
+        ScrapeScheduler one = first.getBean(ScrapeScheduler.class);
+        ScrapeScheduler two = second.getBean(ScrapeScheduler.class);
+
+        long end = System.currentTimeMillis() + INTERVAL.toMillis() * 3 - 500;
+        while (System.currentTimeMillis() < end) {
+            one.poll(stub);
+            two.poll(stub);
+            Thread.sleep(20);
+        }
+
+        List<Long> starts = stub.starts();
+        assertEquals(3, starts.size(), "runs started at " + starts);
+        for (int i = 1; i < starts.size(); i++) {
+            // Started a few ms after the lease was taken, so allow a little slack
+            assertTrue(starts.get(i) - starts.get(i - 1) >= INTERVAL.toMillis() - 100, "runs started at " + starts);
+        }
+    }
+
+    @Test
+    void anExpiredLeaseIsTakenOver() throws Exception {
+        ScrapeLeases dead = first.getBean(ScrapeLeases.class);
+        assertNotNull(dead.tryAcquire("stub", INTERVAL, true));
+        // Stops the renewals without releasing the lease, as if the replica had died mid-run
+        dead.shutdown();
+        long taken = System.currentTimeMillis();
+
+        ScrapeLeases leases = second.getBean(ScrapeLeases.class);
+        assertNull(leases.tryAcquire("stub", INTERVAL, true));
+        ScrapeLeases.Lease lease = null;
+        while (lease == null && System.currentTimeMillis() < taken + TTL.toMillis() * 2) {
+            Thread.sleep(100);
+            lease = leases.tryAcquire("stub", INTERVAL, true);
+        }
+        assertNotNull(lease);
+        assertTrue(System.currentTimeMillis() - taken >= TTL.toMillis());
+        assertEquals("second", owner());
+        lease.close();
+    }
+
+    @Test
+    void aRunStopsWhenItsLeaseIsTakenOver() throws Exception {
+        StubScraper stub = new StubScraper(Duration.ofMinutes(1));
+        assertTrue(first.getBean(ScrapeScheduler.class).trigger(stub));
+        assertTrue(stub.started.await(5, TimeUnit.SECONDS));
+
+        // The lease runs out under the first replica, e.g. during a long pause, and the second takes it
+        JdbcTemplate jdbc = second.getBean(JdbcTemplate.class);
+        ScrapeLeases leases = second.getBean(ScrapeLeases.class);
+        ScrapeLeases.Lease lease = null;
+        for (int i = 0; i < 50 && lease == null; i++) {
+            jdbc.update("UPDATE scrape_leases SET locked_until = ? WHERE source_key = 'stub'",
+                    Timestamp.valueOf(LocalDateTime.now().minusSeconds(1)));
+            lease = leases.tryAcquire("stub", INTERVAL, true);
+        }
+        assertNotNull(lease);
+
+        // Noticed at the first replica's next renewal
+        assertTrue(stub.interrupted.await(TTL.toMillis() * 2, TimeUnit.MILLISECONDS));
+        Thread.sleep(500);
+        // Closing the stopped run must leave the second replica's lease alone
+        assertEquals("second", owner());
+        assertFalse(jdbc.queryForObject("SELECT locked_until FROM scrape_leases WHERE source_key = 'stub'",
+                Timestamp.class).before(Timestamp.valueOf(LocalDateTime.now())));
+        lease.close();
+    }
+
+    private String owner() {
+        return second.getBean(JdbcTemplate.class).queryForObject(
+                "SELECT owner FROM scrape_leases WHERE source_key = 'stub'", String.class);
+    }
+
+    private static ConfigurableApplicationContext replica(String database, String nodeId) {
+        return new SpringApplicationBuilder(JobUpdaterApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=" + database,
+                "--scraper.cluster.scrape=false",
+                "--scraper.cluster.node-id=" + nodeId,
+                "--scraper.cluster.lease-ttl=" + TTL.toMillis() + "ms",
+                "--scraper.intervals.stub=" + INTERVAL.toMillis() + "ms");
+    }
+
+    // Takes the given time per run, or until interrupted
+    private static class StubScraper implements ScraperStrategy {
+        private final Duration runTime;
+        private final List<Long> starts = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+
+        StubScraper(Duration runTime) {
+            this.runTime = runTime;
+        }
+
+        @Override
+        public void scrape(Consumer<Job> sink) {
+            starts.add(System.currentTimeMillis());
+            started.countDown();
+            try {
+                Thread.sleep(runTime.toMillis());
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public String getSourceName() {
+            return "Stub";
+        }
+
+        @Override
+        public String getSourceKey() {
+            return "stub";
+        }
+
+        List<Long> starts() {
+            synchronized (starts) {
+                return new ArrayList<>(starts);
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.jobupdater;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ScraperMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ScraperMetrics metrics = new ScraperMetrics(registry, Mockito.mock(ScrapeProgress.class),
+            Mockito.mock(SeenJobIndex.class));
+
+    @Test
+    void aMixedBatchIsOneStatementSample() {
+        Map<String, Integer> bySource = new LinkedHashMap<>();
+        bySource.put("LinkedIn", 30);
+        bySource.put("Naukri", 10);
+        bySource.put(null, 1);
+
+        metrics.dbInsert(bySource, TimeUnit.MILLISECONDS.toNanos(8));
+        metrics.dbLookup(bySource, TimeUnit.MILLISECONDS.toNanos(4));
+
+        Timer insert = registry.get("scraper.db.insert").timer();
+        assertEquals(1, insert.count());
+        assertEquals(8, insert.totalTime(TimeUnit.MILLISECONDS), 0.001);
+        assertEquals(1, registry.get("scraper.db.dedup.lookup").timer().count());
+        assertEquals(1, registry.get("scraper.db.insert").timers().size());
+
+        DistributionSummary linkedIn = registry.get("scraper.db.insert.rows").tag("source", "LinkedIn").summary();
+        assertEquals(30, linkedIn.totalAmount(), 0.001);
+        assertEquals(1, registry.get("scraper.db.insert.rows").tag("source", "none").summary().count());
+        assertEquals(10, registry.get("scraper.db.dedup.lookup.jobs").tag("source", "Naukri").summary().totalAmount(), 0.001);
+    }
+}
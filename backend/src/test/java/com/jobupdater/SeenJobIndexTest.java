@@ -0,0 +1,79 @@
+package com.jobupdater;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// The Bloom screen against an empty table, with the event subscription going up and down
+class SeenJobIndexTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private ClusterEvents clusterEvents;
+    private SeenJobIndex index;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        clusterEvents = mock(ClusterEvents.class);
+        index = new SeenJobIndex(jdbcTemplate, new ScraperProperties(), clusterEvents);
+    }
+
+    @Test
+    void missesAreTrustedOnlyWhileEventsComeIn() {
+        when(clusterEvents.eventEpoch()).thenReturn(-1L);
+        assertEquals(SeenJobIndex.Verdict.MAYBE, index.check(job("https://acme.example/jobs/1")));
+        assertEquals(SeenJobIndex.Verdict.MAYBE, index.check(job("https://acme.example/jobs/2")));
+        assertLoads(1);
+
+        // Subscribed: reloaded once, since events sent before were missed
+        when(clusterEvents.eventEpoch()).thenReturn(1L);
+        assertEquals(SeenJobIndex.Verdict.NEW, index.check(job("https://acme.example/jobs/3")));
+        assertEquals(SeenJobIndex.Verdict.NEW, index.check(job("https://acme.example/jobs/4")));
+        assertLoads(2);
+
+        // Connection lost: back to database checks, and nothing to reload until it is back
+        when(clusterEvents.eventEpoch()).thenReturn(-1L);
+        assertEquals(SeenJobIndex.Verdict.MAYBE, index.check(job("https://acme.example/jobs/5")));
+        assertLoads(2);
+
+        when(clusterEvents.eventEpoch()).thenReturn(2L);
+        assertEquals(SeenJobIndex.Verdict.NEW, index.check(job("https://acme.example/jobs/6")));
+        assertLoads(3);
+    }
+
+    @Test
+    void recordedKeysAreKnown() {
+        when(clusterEvents.eventEpoch()).thenReturn(0L);
+        Job saved = job("https://acme.example/jobs/1");
+        index.record(saved);
+        assertEquals(SeenJobIndex.Verdict.KNOWN, index.check(job("https://acme.example/jobs/1")));
+
+        Job linked = job("https://www.naukri.com/job-listings-platform-engineer-acme-7");
+        index.record(linked.getJobKey(), linked.getContentKey() + 1);
+        assertEquals(SeenJobIndex.Verdict.KNOWN, index.check(linked));
+    }
+
+    private void assertLoads(int times) {
+        verify(jdbcTemplate, times(times)).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+        verify(jdbcTemplate, times(times)).query(any(String.class), any(RowCallbackHandler.class));
+    }
+
+    // Each URL gets its own title, so no two of these share a key
+    private static Job job(String url) {
+        Job job = new Job();
+        job.setTitle("Engineer " + url.hashCode());
+        job.setCompany("Acme");
+        job.setUrl(url);
+        JobKeys.assign(job);
+        return job;
+    }
+}
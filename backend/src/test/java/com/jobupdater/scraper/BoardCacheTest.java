@@ -0,0 +1,66 @@
+package com.jobupdater.scraper;
+
+import com.jobupdater.ScraperProperties;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpHeaders;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoardCacheTest {
+
+    private static final Object VERSION = new Object();
+    private static final String URL = "https://boards.greenhouse.io/acme";
+    private static final List<Map<String, String>> CARDS =
+            Collections.singletonList(Collections.singletonMap("title", "Platform Engineer"));
+
+    private final BoardCache cache = new BoardCache(new ScraperProperties());
+
+    @Test
+    void aBoardWhoseJobsWereNotSavedIsFetchedInFullAgain() {
+        BoardCache.Entry entry = cache.entryFor(URL);
+        assertFalse(fetch(entry, "v1"));
+        entry.changed();
+        entry.notSaved();
+
+        assertTrue(entry.conditionalHeaders(VERSION).isEmpty());
+        assertFalse(fetch(entry, "v1"));
+        entry.changed();
+        entry.saved();
+
+        assertEquals(Collections.singletonMap("If-None-Match", "v1"), entry.conditionalHeaders(VERSION));
+        assertTrue(entry.sameBody(page("v1"), VERSION));
+    }
+
+    @Test
+    void aFailedParseIsNotRememberedByALater304() {
+        BoardCache.Entry entry = cache.entryFor(URL);
+        fetch(entry, "v1");
+        entry.changed();
+        entry.saved();
+
+        // New body, but the parse fails before its jobs go anywhere
+        assertFalse(entry.sameBody(page("v2"), VERSION));
+        entry.notSaved();
+        // The server still knows v1, answers 304, and the board backs off
+        entry.unchanged();
+
+        assertEquals(Collections.singletonMap("If-None-Match", "v1"), entry.conditionalHeaders(VERSION));
+        assertFalse(entry.sameBody(page("v2"), VERSION));
+    }
+
+    // A full 200 response; true if the board came back unchanged
+    private static boolean fetch(BoardCache.Entry entry, String etag) {
+        return entry.sameBody(page(etag), VERSION) || entry.sameCards(CARDS, VERSION);
+    }
+
+    private static HttpFetcher.Page page(String etag) {
+        HttpHeaders headers = HttpHeaders.of(Collections.singletonMap("ETag", List.of(etag)), (name, value) -> true);
+        return new HttpFetcher.Page(URL, 200, "<html>" + etag + "</html>", headers);
+    }
+}
@@ -0,0 +1,163 @@
+package com.jobupdater.scraper;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.jobupdater.Job;
+import com.jobupdater.ScrapeProgress;
+import com.jobupdater.ScraperMetrics;
+import com.jobupdater.ScraperProperties;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// The bundled card selectors against recorded boards (src/test/resources/boards) on a stub server
+class BoardScrapersTest {
+
+    @TempDir
+    Path dir;
+
+    private HttpServer server;
+    private HttpFetcher fetcher;
+    private ScraperMetrics metrics;
+    private String base;
+
+    @BeforeEach
+    void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/greenhouse/acme", exchange ->
+                respond(exchange, "text/html; charset=utf-8", board("greenhouse-acme"), false));
+        // Recorded as UTF-8 like the others, served as the board sent it
+        server.createContext("/greenhouse/globex", exchange -> respond(exchange, "text/html; charset=ISO-8859-1",
+                new String(board("greenhouse-globex"), StandardCharsets.UTF_8).getBytes(StandardCharsets.ISO_8859_1), false));
+        server.createContext("/lever/initech", exchange ->
+                respond(exchange, "text/html; charset=utf-8", board("lever-initech"), true));
+        server.start();
+        base = "http://127.0.0.1:" + server.getAddress().getPort();
+
+        ScraperProperties properties = new ScraperProperties();
+        metrics = Mockito.mock(ScraperMetrics.class);
+        fetcher = new HttpFetcher(properties, new HostRateLimiter(properties, metrics), metrics);
+    }
+
+    @AfterEach
+    void stop() {
+        fetcher.shutdown();
+        server.stop(0);
+    }
+
+    @Test
+    void greenhouseBoardsInBothLayouts() throws IOException {
+        List<Job> jobs = scrape(new GreenhouseScraper(), "greenhouse", "acme", "globex");
+
+        assertEquals(3, jobs.size(), "jobs " + jobs);
+        assertJob(jobs.get(0), "Site Reliability Engineer", base + "/acme/jobs/5000001?gh_jid=5000001",
+                "Remote / See Details", "Acme", "Carrier Site (acme)");
+        assertJob(jobs.get(1), "Software Engineer (Zürich)", base + "/globex/jobs/6000000",
+                "Zürich, Schweiz", "Globex", "Carrier Site (globex)");
+        assertJob(jobs.get(2), "Software Engineer, Payments", base + "/acme/jobs/5000000?gh_jid=5000000",
+                "Bengaluru, Karnataka, India", "Acme", "Carrier Site (acme)");
+        assertEquals("Apply directly on company career site.", jobs.get(0).getDescription());
+        // The opening without a link, reported under the first title probe
+        Mockito.verify(metrics).parseFailure("Career Sites (Greenhouse)", "a[href] p.body--medium");
+    }
+
+    @Test
+    void leverBoardSentCompressed() throws IOException {
+        List<Job> jobs = scrape(new LeverScraper(), "lever", "initech");
+
+        assertEquals(2, jobs.size(), "jobs " + jobs);
+        assertJob(jobs.get(0), "Backend Developer",
+                "https://jobs.lever.co/initech/00000000-0000-4000-8000-000000000000/apply",
+                "Chennai, Tamil Nadu, India", "Initech", "Career Site (Lever)");
+        // No apply button: the title link
+        assertJob(jobs.get(1), "Data Engineer", "https://jobs.lever.co/initech/00000001-0000-4000-8000-000000000001",
+                "Remote / See Details", "Initech", "Career Site (Lever)");
+        Mockito.verify(metrics, Mockito.never()).parseFailure(Mockito.anyString(), Mockito.anyString());
+    }
+
+    // Runs the scraper once over the given boards, with the bundled definition pointed at the stub server
+    private List<Job> scrape(BaseHttpScraper scraper, String sourceKey, String... targets) throws IOException {
+        ObjectMapper json = new ObjectMapper().enable(JsonParser.Feature.ALLOW_COMMENTS);
+        ObjectNode sources;
+        try (InputStream in = BoardScrapersTest.class.getResourceAsStream("/sources.json")) {
+            sources = (ObjectNode) json.readTree(in);
+        }
+        sources.retain(sourceKey);
+        ObjectNode source = (ObjectNode) sources.get(sourceKey);
+        source.put("url", base + "/" + sourceKey + "/{target}");
+        ArrayNode boards = source.putArray("targets");
+        for (String target : targets) {
+            boards.add(target);
+        }
+        source.put("requestsPerMinute", 0);
+        Path file = dir.resolve("sources.json");
+        json.writeValue(file.toFile(), sources);
+
+        ScraperProperties properties = new ScraperProperties();
+        properties.setSourcesFile(file.toString());
+        ReflectionTestUtils.setField(scraper, "httpFetcher", fetcher);
+        ReflectionTestUtils.setField(scraper, "scrapeProgress", Mockito.mock(ScrapeProgress.class));
+        ReflectionTestUtils.setField(scraper, "scraperMetrics", metrics);
+        ReflectionTestUtils.setField(scraper, "sourceCatalog", new SourceCatalog(properties));
+        ReflectionTestUtils.setField(scraper, "boardCache", new BoardCache(properties));
+        ReflectionTestUtils.setField(scraper, "rateLimiter", new HostRateLimiter(properties, metrics));
+
+        List<Job> jobs = new ArrayList<>();
+        scraper.scrape(jobs::add);
+        // Boards are parsed in the order their responses arrive
+        jobs.sort(Comparator.comparing(Job::getTitle));
+        return jobs;
+    }
+
+    private static void assertJob(Job job, String title, String url, String location, String company, String source) {
+        assertEquals(title, job.getTitle());
+        assertEquals(url, job.getUrl());
+        assertEquals(location, job.getLocation());
+        assertEquals(company, job.getCompany());
+        assertEquals(source, job.getSource());
+    }
+
+    private static byte[] board(String name) throws IOException {
+        try (InputStream in = BoardScrapersTest.class.getResourceAsStream("/boards/" + name + ".html")) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, String contentType, byte[] body, boolean gzip) throws IOException {
+        if (gzip) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try (GZIPOutputStream compressed = new GZIPOutputStream(out)) {
+                compressed.write(body);
+            }
+            body = out.toByteArray();
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        }
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
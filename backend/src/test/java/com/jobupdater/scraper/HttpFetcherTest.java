@@ -0,0 +1,138 @@
+package com.jobupdater.scraper;
+
+import com.jobupdater.ScraperMetrics;
+import com.jobupdater.ScraperProperties;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Against a stub server on the loopback interface; "localhost" and "127.0.0.1" count as two hosts
+class HttpFetcherTest {
+
+    private final CountDownLatch slowRelease = new CountDownLatch(1);
+    private HttpServer server;
+    private HttpFetcher fetcher;
+    private ScraperMetrics metrics;
+
+    @BeforeEach
+    void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(java.util.concurrent.Executors.newCachedThreadPool());
+        server.createContext("/plain", exchange -> respond(exchange, 200, "text/html",
+                "<p>caf\u00e9</p>".getBytes(StandardCharsets.UTF_8)));
+        server.createContext("/latin1", exchange -> respond(exchange, 200, "text/html; charset=ISO-8859-1",
+                "<p>caf\u00e9</p>".getBytes(StandardCharsets.ISO_8859_1)));
+        server.createContext("/gzip", exchange -> {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+                gzip.write("<p>compressed</p>".getBytes(StandardCharsets.UTF_8));
+            }
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            respond(exchange, 200, "text/html", out.toByteArray());
+        });
+        server.createContext("/busy", exchange -> {
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            respond(exchange, 429, "text/plain", new byte[0]);
+        });
+        server.createContext("/slow", exchange -> {
+            try {
+                slowRelease.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, 200, "text/html", "slow".getBytes(StandardCharsets.UTF_8));
+        });
+        server.start();
+
+        ScraperProperties properties = new ScraperProperties();
+        properties.getHttp().setMaxConcurrency(2);
+        properties.getHttp().setPerHostConcurrency(1);
+        metrics = Mockito.mock(ScraperMetrics.class);
+        fetcher = new HttpFetcher(properties, new HostRateLimiter(properties, metrics), metrics);
+    }
+
+    @AfterEach
+    void stop() {
+        slowRelease.countDown();
+        fetcher.shutdown();
+        server.stop(0);
+    }
+
+    @Test
+    void decodesCompressedBodies() throws Exception {
+        HttpFetcher.Page page = fetcher.fetchAsync(url("localhost", "/gzip")).get(5, TimeUnit.SECONDS);
+
+        assertTrue(page.isOk());
+        assertEquals("<p>compressed</p>", page.getBody());
+    }
+
+    @Test
+    void decodesWithTheDeclaredCharset() throws Exception {
+        assertEquals("<p>caf\u00e9</p>", fetcher.fetchAsync(url("localhost", "/latin1")).get(5, TimeUnit.SECONDS).getBody());
+        // No charset parameter: UTF-8
+        assertEquals("<p>caf\u00e9</p>", fetcher.fetchAsync(url("localhost", "/plain")).get(5, TimeUnit.SECONDS).getBody());
+    }
+
+    @Test
+    void backsOffAHostThatAnswers429() throws Exception {
+        HttpFetcher.Page page = fetcher.fetchAsync(url("localhost", "/busy")).get(5, TimeUnit.SECONDS);
+
+        assertEquals(429, page.getStatus());
+        Mockito.verify(metrics).throttled("localhost", "http_429");
+        // Paused for the Retry-After second
+        long start = System.currentTimeMillis();
+        fetcher.fetchAsync(url("localhost", "/plain")).get(5, TimeUnit.SECONDS);
+        assertTrue(System.currentTimeMillis() - start >= 500);
+    }
+
+    @Test
+    void aSaturatedHostDoesNotStarveOthers() throws Exception {
+        // One in flight per host and two workers: the rest of the slow host's fetches must wait
+        // in its own queue, not on the workers
+        List<CompletableFuture<HttpFetcher.Page>> slow = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            slow.add(fetcher.fetchAsync(url("localhost", "/slow")));
+        }
+
+        HttpFetcher.Page other = fetcher.fetchAsync(url("127.0.0.1", "/plain")).get(5, TimeUnit.SECONDS);
+
+        assertTrue(other.isOk());
+        assertFalse(slow.get(0).isDone());
+        slowRelease.countDown();
+        for (CompletableFuture<HttpFetcher.Page> page : slow) {
+            assertEquals("slow", page.get(5, TimeUnit.SECONDS).getBody());
+        }
+    }
+
+    private String url(String host, String path) {
+        return "http://" + host + ":" + server.getAddress().getPort() + path;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package db.migration;
+
+import com.jobupdater.Job;
+import com.jobupdater.JobKeys;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// V3's frozen copy of the key rules still agrees with JobKeys on every URL JobKeysTest covers.
+// Once JobKeys changes on purpose, the cases it changes belong in a list of known differences.
+class FrozenKeysTest {
+
+    @ParameterizedTest
+    @MethodSource("com.jobupdater.JobKeysTest#cases")
+    void matchesJobKeys(String url, String canonical, String nativeId) {
+        String frozenUrl = V3__job_keys.FrozenKeys.canonicalUrl(url);
+        assertEquals(JobKeys.canonicalUrl(url), frozenUrl);
+        assertEquals(JobKeys.nativeId(frozenUrl), V3__job_keys.FrozenKeys.nativeId(frozenUrl));
+
+        Job job = new Job();
+        job.setUrl(frozenUrl);
+        job.setTitle(" Java  Developer ");
+        job.setCompany("Acme");
+        JobKeys.assign(job);
+        assertEquals(job.getJobKey(), V3__job_keys.FrozenKeys.jobKey(frozenUrl, " Java  Developer ", "Acme"));
+        assertEquals(job.getContentKey(), V3__job_keys.FrozenKeys.contentKey(" Java  Developer ", "Acme"));
+    }
+}
@@ -1,9 +1,9 @@
-import React, { useEffect, useState } from 'react';
-import { useQuery } from '@tanstack/react-query';
+import React, { useEffect, useRef, useState } from 'react';
+import { keepPreviousData, useInfiniteQuery, useQuery, useQueryClient } from '@tanstack/react-query';
 import axios from 'axios';
 import { useDispatch, useSelector } from 'react-redux';
 import type { RootState } from '../store/store';
-import { setJobs, addJobs, updateJobStatus } from '../store/jobSlice';
+import { setJobs, updateJobStatus } from '../store/jobSlice';
 import type { Job } from '../store/jobSlice';
 import { Card, List, Tag, Button, Spin, Badge, Typography, Space, Input, Select, Tabs, Modal } from 'antd';
 import { Client } from '@stomp/stompjs';
@@ -14,8 +14,64 @@ const { Text, Title } = Typography;
 
 const API_URL = import.meta.env.VITE_API_URL || '';
 
-const fetchJobs = async (): Promise<Job[]> => {
-    const response = await axios.get(`${API_URL}/api/jobs`);
+interface JobPage {
+    items: Job[];
+    nextCursor: string | null;
+}
+
+interface JobUpdate {
+    seq: number;
+    node: string;
+    jobs: Job[];
+}
+
+interface JobUpdates extends JobUpdate {
+    complete: boolean;
+}
+
+interface ScrapeStatus {
+    message: string;
+}
+
+interface JobStats {
+    statusCounts: Record<string, number>;
+    sources: string[];
+}
+
+interface JobFilters {
+    status: string;
+    sources: string[];
+    q: string;
+    experience: string;
+    sort: string;
+}
+
+const PAGE_SIZE = 20;
+
+// Filtering, sorting and paging happen on the server; each call returns one page plus a cursor.
+// With search text the full-text endpoint is used instead and results come back by relevance.
+const fetchJobsPage = async (filters: JobFilters, cursor?: string): Promise<JobPage> => {
+    const params = new URLSearchParams();
+    params.set('status', filters.status);
+    filters.sources.forEach(s => params.append('source', s));
+    if (filters.q) params.set('q', filters.q);
+    if (filters.experience !== 'ALL') params.set('experience', filters.experience);
+    params.set('sort', filters.sort);
+    params.set('limit', String(PAGE_SIZE));
+    if (cursor) params.set('cursor', cursor);
+    const endpoint = filters.q ? '/api/jobs/search' : '/api/jobs';
+    const response = await axios.get(`${API_URL}${endpoint}`, { params });
+    return response.data;
+};
+
+// Jobs broadcast after the given sequence number of the given replica, for catching up after a reconnect
+const fetchJobUpdates = async (since: number, node: string | null): Promise<JobUpdates> => {
+    const response = await axios.get(`${API_URL}/api/jobs/updates`, { params: { since, node } });
+    return response.data;
+};
+
+const fetchJobStats = async (): Promise<JobStats> => {
+    const response = await axios.get(`${API_URL}/api/jobs/stats`);
     return response.data;
 };
 
@@ -44,6 +100,7 @@ const timeAgo = (dateString: string) => {
 
 const JobFeed: React.FC = () => {
     const dispatch = useDispatch();
+    const queryClient = useQueryClient();
     const jobs = useSelector((state: RootState) => state.jobs.jobs);
 
     useEffect(() => {
@@ -51,17 +108,19 @@ const JobFeed: React.FC = () => {
     }, []);
 
     const [searchText, setSearchText] = useState('');
+    const [debouncedSearch, setDebouncedSearch] = useState('');
     const [selectedSources, setSelectedSources] = useState<string[]>([]);
     const [connected, setConnected] = useState(false);
     const [pendingJobs, setPendingJobs] = useState<Job[]>([]);
     const [scanningStatus, setScanningStatus] = useState('Initializing...');
-
-    // Pagination State
-    const [pageSize, setPageSize] = useState<number>(10);
-    const [currentPage, setCurrentPage] = useState<number>(1);
+    // Last /topic/jobs sequence number seen and the replica it came from, and the URLs already
+    // loaded (read from socket callbacks)
+    const lastSeq = useRef<number | null>(null);
+    const lastNode = useRef<string | null>(null);
+    const loadedUrls = useRef<Set<string>>(new Set());
 
     // Sort State
-    const [sortOrder, setSortOrder] = useState<'date-desc' | 'date-asc' | 'company'>('date-desc');
+    const [sortOrder, setSortOrder] = useState<'newest' | 'oldest' | 'company'>('newest');
 
     // Tab State
     const [activeTab, setActiveTab] = useState<'NEW' | 'APPLIED' | 'DRAFT'>('NEW');
@@ -97,6 +156,7 @@ const JobFeed: React.FC = () => {
                     headers: { 'Content-Type': 'text/plain' }
                 });
                 dispatch(updateJobStatus({ id: selectedJob.id, status }));
+                queryClient.invalidateQueries({ queryKey: ['jobStats'] });
             } catch (e) {
                 console.error("Failed to update status", e);
             }
@@ -105,103 +165,134 @@ const JobFeed: React.FC = () => {
         setSelectedJob(null);
     };
 
-    // Filter Logic
-    const filteredJobs = jobs.filter(job => {
-        // Status Filter (Tab)
-        const jobStatus = job.status || 'NEW'; // Handle legacy jobs with no status
-        if (jobStatus !== activeTab) return false;
-
-        // Experience Filter
-        const expLevel = detectExperience(job.title, job.description);
-        if (experienceFilter === 'FRESHER' && expLevel !== 'FRESHER') return false;
-        if (experienceFilter === 'EXPERIENCED' && expLevel !== 'EXPERIENCED') return false;
-        // Note: 'ALL' includes UNKNOWN
-
-        const matchesSearch = job.title.toLowerCase().includes(searchText.toLowerCase()) ||
-            job.company.toLowerCase().includes(searchText.toLowerCase());
-        const matchesSource = selectedSources.length === 0 || selectedSources.includes(job.source);
-        return matchesSearch && matchesSource;
-    }).sort((a, b) => {
-        if (sortOrder === 'date-asc') {
-            const dateA = new Date(a.postedAt).getTime();
-            const dateB = new Date(b.postedAt).getTime();
-            return (isNaN(dateA) ? 0 : dateA) - (isNaN(dateB) ? 0 : dateB);
-        }
-        if (sortOrder === 'company') return a.company.localeCompare(b.company);
+    // Debounce search so typing doesn't fire a request per keystroke
+    useEffect(() => {
+        const timer = setTimeout(() => setDebouncedSearch(searchText.trim()), 300);
+        return () => clearTimeout(timer);
+    }, [searchText]);
+
+    const filters: JobFilters = {
+        status: activeTab,
+        sources: selectedSources,
+        q: debouncedSearch,
+        experience: experienceFilter,
+        sort: sortOrder,
+    };
 
-        // Default: date-desc (Newest First)
-        const dateA = new Date(a.postedAt).getTime();
-        const dateB = new Date(b.postedAt).getTime();
+    const {
+        data: jobPages, isLoading, isError, fetchNextPage, hasNextPage, isFetchingNextPage,
+    } = useInfiniteQuery({
+        queryKey: ['jobs', filters],
+        queryFn: ({ pageParam }) => fetchJobsPage(filters, pageParam),
+        initialPageParam: undefined as string | undefined,
+        getNextPageParam: (lastPage) => lastPage.nextCursor ?? undefined,
+        // Keep showing the current list while a new filter combination loads
+        placeholderData: keepPreviousData,
+    });
 
-        // If dates are equal or invalid, use ID as tiebreaker to show latest scraped
-        if (dateA === dateB || isNaN(dateA) || isNaN(dateB)) {
-            return b.id - a.id;
-        }
-        return dateB - dateA;
+    const { data: stats } = useQuery({
+        queryKey: ['jobStats'],
+        queryFn: fetchJobStats,
     });
 
-    const availableSources = Array.from(new Set(jobs.map(job => job.source)));
+    useEffect(() => {
+        if (jobPages) {
+            dispatch(setJobs(jobPages.pages.flatMap(page => page.items)));
+        }
+    }, [jobPages, dispatch]);
 
-    // ... (Hooks for useQuery, WebSocket use effect remain roughly same, kept connected logic below)
+    // Jobs whose status was just changed leave the current tab right away
+    const filteredJobs = jobs.filter(job => (job.status || 'NEW') === activeTab);
 
-    // Initial Fetch
-    const { data: initialJobs, isLoading, isError } = useQuery({
-        queryKey: ['jobs'],
-        queryFn: fetchJobs,
-    });
+    const availableSources = stats?.sources ?? [];
+    const statusCount = (status: string) => stats?.statusCounts[status] ?? 0;
+    const totalCount = Object.values(stats?.statusCounts ?? {}).reduce((sum, n) => sum + n, 0);
 
     useEffect(() => {
-        if (initialJobs) {
-            dispatch(setJobs(initialJobs));
-        }
-    }, [initialJobs, dispatch]);
+        loadedUrls.current = new Set(jobs.map(j => j.url));
+    }, [jobs]);
 
     // WebSocket Connection
     useEffect(() => {
-        const socket = new SockJS(`${API_URL}/ws`);
+        // Buffer jobs instead of immediate update to avoid disturbing current list
+        const bufferJobs = (newJobs: Job[]) => {
+            setPendingJobs(prev => {
+                const seen = new Set(prev.map(p => p.url));
+                const fresh = newJobs.filter(j => !seen.has(j.url) && !loadedUrls.current.has(j.url));
+                return fresh.length > 0 ? [...prev, ...fresh] : prev;
+            });
+        };
+
         const client = new Client({
-            webSocketFactory: () => socket,
+            // A fresh socket per (re)connect; a closed SockJS instance can't be reopened
+            webSocketFactory: () => new SockJS(`${API_URL}/ws`),
             onConnect: () => {
                 setConnected(true);
                 client.subscribe('/topic/jobs', (message) => {
                     if (message.body) {
-                        const newJobs: Job[] = JSON.parse(message.body);
-                        // Buffer jobs instead of immediate update to avoid disturbing current list
-                        setPendingJobs(prev => {
-                            // Filter out jobs that are already in pending or in current jobs
-                            const filteredNewJobs = newJobs.filter(newJob =>
-                                !prev.some(p => p.url === newJob.url) &&
-                                !jobs.some(j => j.url === newJob.url)
-                            );
-                            return [...prev, ...filteredNewJobs];
-                        });
+                        const update: JobUpdate = JSON.parse(message.body);
+                        lastSeq.current = update.seq;
+                        lastNode.current = update.node;
+                        bufferJobs(update.jobs);
                     }
                 });
 
+                // After a reconnect, fetch whatever was broadcast while we were away
+                if (lastSeq.current !== null) {
+                    fetchJobUpdates(lastSeq.current, lastNode.current).then(updates => {
+                        if (updates.complete) {
+                            bufferJobs(updates.jobs);
+                            lastSeq.current = Math.max(lastSeq.current ?? 0, updates.seq);
+                        } else {
+                            // Too far behind (or the server restarted, or we reconnected to another replica): reload the feed
+                            lastSeq.current = updates.seq;
+                            lastNode.current = updates.node;
+                            queryClient.resetQueries({ queryKey: ['jobs'] });
+                        }
+                    }).catch(() => { /* next message or refresh will catch up */ });
+                }
+
+                // Status is only pushed when scrape state changes, so load the current snapshot first
                 client.subscribe('/topic/status', (message) => {
                     if (message.body) {
-                        setScanningStatus(message.body);
+                        const status: ScrapeStatus = JSON.parse(message.body);
+                        setScanningStatus(status.message);
                     }
                 });
+                axios.get<ScrapeStatus>(`${API_URL}/api/jobs/progress`)
+                    .then(response => setScanningStatus(response.data.message))
+                    .catch(() => { /* keep the last known status */ });
             },
             onDisconnect: () => setConnected(false),
         });
         client.activate();
         return () => { client.deactivate(); };
-    }, [dispatch]);
+    }, [dispatch, queryClient]);
 
-    if (isLoading) return <div className="flex justify-center p-12"><Spin size="large" /></div>;
+    if (isLoading && !jobPages) return <div className="flex justify-center p-12"><Spin size="large" /></div>;
     if (isError) return <div className="text-red-500 text-center p-12">Error fetching jobs. Backend might be down.</div>;
 
     const handleRefresh = () => {
         if (pendingJobs.length > 0) {
-            dispatch(addJobs(pendingJobs));
             setPendingJobs([]);
+            // Reload from the first page so new jobs land in their proper place for the current filters
+            queryClient.resetQueries({ queryKey: ['jobs'] });
+            queryClient.invalidateQueries({ queryKey: ['jobStats'] });
         }
     };
 
+    const renderJobList = () => (
+        <List grid={{ gutter: 16, column: 1 }} dataSource={filteredJobs}
+            renderItem={renderJobItem}
+            loadMore={hasNextPage && (
+                <div className="text-center mt-4">
+                    <Button onClick={() => fetchNextPage()} loading={isFetchingNextPage}>Load more</Button>
+                </div>
+            )} />
+    );
+
     const renderJobItem = (job: Job) => {
-        const expLevel = detectExperience(job.title, job.description);
+        const expLevel = job.experience ?? detectExperience(job.title, job.description ?? '');
         let expTagColor = 'default';
         if (expLevel === 'FRESHER') expTagColor = 'green';
         if (expLevel === 'EXPERIENCED') expTagColor = 'gold';
@@ -228,6 +319,16 @@ const JobFeed: React.FC = () => {
                                         </Text>
                                     </Space>
                                 </div>
+                                {job.links && job.links.length > 0 && (
+                                    <div className="flex flex-wrap items-center gap-1 mt-2">
+                                        <Text type="secondary" className="text-xs">Also on:</Text>
+                                        {job.links.map(link => (
+                                            <Tag key={link.url} className="text-xs">
+                                                <a href={link.url} target="_blank" rel="noopener noreferrer">{link.source}</a>
+                                            </Tag>
+                                        ))}
+                                    </div>
+                                )}
                             </div>
                             {(activeTab === 'NEW' || activeTab === 'DRAFT') && (
                                 <Button type="primary" onClick={() => handleApplyClick(job)} icon={<ExternalLink size={16} />}>
@@ -258,7 +359,7 @@ const JobFeed: React.FC = () => {
                     ) : <Tag color="warning" className="rounded-full px-3">Connecting...</Tag>}
                 </Space>
                 <div className="text-gray-500">
-                    Total: {jobs.length} | Shown: {filteredJobs.length}
+                    Total: {totalCount} | Shown: {filteredJobs.length}
                 </div>
             </div>
 
@@ -286,9 +387,9 @@ const JobFeed: React.FC = () => {
 
                 <Select mode="multiple" allowClear style={{ width: 200 }} placeholder="Platform" onChange={setSelectedSources} options={availableSources.map(s => ({ label: s, value: s }))} />
 
-                <Select value={sortOrder} style={{ width: 180 }} onChange={setSortOrder} options={[
-                    { label: 'Date: Newest First', value: 'date-desc' },
-                    { label: 'Date: Oldest First', value: 'date-asc' },
+                <Select value={sortOrder} disabled={!!debouncedSearch} style={{ width: 180 }} onChange={setSortOrder} options={[
+                    { label: 'Date: Newest First', value: 'newest' },
+                    { label: 'Date: Oldest First', value: 'oldest' },
                     { label: 'Company Name', value: 'company' },
                 ]} />
 
@@ -301,41 +402,14 @@ const JobFeed: React.FC = () => {
 
             {/* Tabs & List */}
             <Tabs defaultActiveKey="NEW" activeKey={activeTab} onChange={(key) => setActiveTab(key as any)} type="card">
-                <Tabs.TabPane tab={`New Jobs (${jobs.filter(j => (j.status || 'NEW') === 'NEW').length})`} key="NEW">
-                    <List grid={{ gutter: 16, column: 1 }} dataSource={filteredJobs}
-                        pagination={{
-                            pageSize: pageSize,
-                            current: currentPage,
-                            onChange: (page, size) => { setCurrentPage(page); setPageSize(size); },
-                            showSizeChanger: true,
-                            pageSizeOptions: ['10', '20', '50', '100'],
-                            onShowSizeChange: (_, size) => { setPageSize(size); setCurrentPage(1); }
-                        }}
-                        renderItem={renderJobItem} />
+                <Tabs.TabPane tab={`New Jobs (${statusCount('NEW')})`} key="NEW">
+                    {renderJobList()}
                 </Tabs.TabPane>
-                <Tabs.TabPane tab={`Applied (${jobs.filter(j => j.status === 'APPLIED').length})`} key="APPLIED">
-                    <List grid={{ gutter: 16, column: 1 }} dataSource={filteredJobs}
-                        pagination={{
-                            pageSize: pageSize,
-                            current: currentPage,
-                            onChange: (page, size) => { setCurrentPage(page); setPageSize(size); },
-                            showSizeChanger: true,
-                            pageSizeOptions: ['10', '20', '50', '100'],
-                            onShowSizeChange: (_, size) => { setPageSize(size); setCurrentPage(1); }
-                        }}
-                        renderItem={renderJobItem} />
+                <Tabs.TabPane tab={`Applied (${statusCount('APPLIED')})`} key="APPLIED">
+                    {renderJobList()}
                 </Tabs.TabPane>
-                <Tabs.TabPane tab={`Drafts (${jobs.filter(j => j.status === 'DRAFT').length})`} key="DRAFT">
-                    <List grid={{ gutter: 16, column: 1 }} dataSource={filteredJobs}
-                        pagination={{
-                            pageSize: pageSize,
-                            current: currentPage,
-                            onChange: (page, size) => { setCurrentPage(page); setPageSize(size); },
-                            showSizeChanger: true,
-                            pageSizeOptions: ['10', '20', '50', '100'],
-                            onShowSizeChange: (_, size) => { setPageSize(size); setCurrentPage(1); }
-                        }}
-                        renderItem={renderJobItem} />
+                <Tabs.TabPane tab={`Drafts (${statusCount('DRAFT')})`} key="DRAFT">
+                    {renderJobList()}
                 </Tabs.TabPane>
             </Tabs>
 
@@ -1,16 +1,26 @@
 import { createSlice } from '@reduxjs/toolkit';
 import type { PayloadAction } from '@reduxjs/toolkit';
 
+// The same opening on another source, clustered into this job by the backend
+export interface JobLink {
+    source: string;
+    url: string;
+}
+
 export interface Job {
     id: number;
     title: string;
     company: string;
     location: string;
-    description: string;
+    // Only on live updates and GET /api/jobs/{id}; feed pages leave it out
+    description?: string;
     url: string;
     source: string;
     status: 'NEW' | 'APPLIED' | 'DRAFT';
     postedAt: string;
+    links?: JobLink[];
+    // Stored by the server at ingest
+    experience?: 'FRESHER' | 'EXPERIENCED' | 'UNKNOWN';
 }
 
 interface JobState {